@@ -0,0 +1,352 @@
+package sieve;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+import java.util.stream.*;
+
+/**
+ * A segmented Sieve of Eratosthenes for ranges [from, to] with to up to 10^14. Only odd numbers get a
+ * bit, so a 32 KB segment covers 524,288 numbers and fits the L1 cache. Every segment starts as a copy of
+ * a precomputed wheel pattern with the multiples of 3, 5, 7, 11 and 13 already crossed off; only the
+ * primes from 17 up to the square root of to are crossed off one by one. Segments are independent, so
+ * they are sieved in parallel on a fork/join pool, or lazily, one at a time, by {@link #primes}.
+ * High up, most base primes cross off at most once per segment but are visited in every one, so
+ * there L2 sized segments are faster.
+ */
+public class SegmentedSieve
+{
+   public static final int L1_SEGMENT_BYTES = 32 * 1024;
+   public static final int L2_SEGMENT_BYTES = 256 * 1024;
+   public static final long MAX = 100_000_000_000_000L;
+
+   private static final int[] WHEEL_PRIMES = { 3, 5, 7, 11, 13 };
+   /** 3 * 5 * 7 * 11 * 13: the pattern of odd numbers repeats after this many bits. */
+   private static final int WHEEL_PERIOD = 15015;
+   /**
+    * The pattern repeated 64 times, so it also repeats after WHEEL_PERIOD whole words and a segment
+    * starting at a word boundary can copy it word by word.
+    */
+   private static final long[] WHEEL = wheel();
+   /** Segments per fork/join leaf at least, so a leaf's setup is paid for by its sieving. */
+   private static final int MIN_SEGMENTS_PER_TASK = 16;
+
+   private final int segmentBits;
+
+   public SegmentedSieve()
+   {
+      this(L1_SEGMENT_BYTES);
+   }
+
+   /**
+    * @param segmentBytes size of one segment, a multiple of 8
+    */
+   public SegmentedSieve(int segmentBytes)
+   {
+      if (segmentBytes <= 0 || segmentBytes % 8 != 0)
+         throw new IllegalArgumentException("Segment size must be a positive multiple of 8: "
+            + segmentBytes);
+      segmentBits = segmentBytes * 8;
+   }
+
+   /**
+    * Counts the primes in [from, to], sieving the segments in parallel on the pool.
+    */
+   public long count(long from, long to, ForkJoinPool pool)
+   {
+      Range range = new Range(from, to);
+      // [2, 2] has no odd number, but the prime 2
+      if (range.isEmpty()) return range.hasTwo() ? 1 : 0;
+      int leaves = Math.max(1, pool.getParallelism() * 8);
+      long perLeaf = Math.max(MIN_SEGMENTS_PER_TASK, (range.segments + leaves - 1) / leaves);
+      return pool.invoke(new CountTask(range, 0, range.segments, perLeaf));
+   }
+
+   public long count(long from, long to)
+   {
+      return count(from, to, ForkJoinPool.commonPool());
+   }
+
+   /**
+    * The primes in [from, to] in increasing order. Segments are sieved only when the stream gets to
+    * them, so memory stays at one segment per thread however large the range. A parallel stream
+    * splits the range by segments.
+    */
+   public LongStream primes(long from, long to)
+   {
+      Range range = new Range(from, to);
+      return StreamSupport.longStream(new PrimeSpliterator(range, 0, range.segments), false);
+   }
+
+   /**
+    * A range of numbers, as odd-number bit indexes split into segments. Bit i stands for 2i + 1; the
+    * first segment starts at a word boundary at or below the first odd number of the range.
+    */
+   private class Range
+   {
+      final long from;
+      final long to;
+      final long first;
+      final long last;
+      final long start;
+      final long segments;
+      final int[] basePrimes;
+
+      Range(long from, long to)
+      {
+         if (from < 0 || to > MAX)
+            throw new IllegalArgumentException("Range must be within [0, " + MAX + "]: [" + from + ", "
+               + to + "]");
+         this.from = from;
+         this.to = to;
+         first = from / 2;
+         last = to < 1 ? -1 : (to - 1) / 2;
+         start = first & ~63L;
+         segments = isEmpty() ? 0 : (last - start) / segmentBits + 1;
+         basePrimes = isEmpty() ? new int[0] : basePrimes((int) Math.sqrt((double) to) + 1);
+      }
+
+      boolean isEmpty()
+      {
+         return last < first;
+      }
+
+      /**
+       * 2 is the one prime without a bit.
+       */
+      boolean hasTwo()
+      {
+         return from <= 2 && to >= 2;
+      }
+   }
+
+   /**
+    * Sieves segment after segment of one range, carrying over from one segment to the next where each
+    * base prime has to cross off next.
+    */
+   private class Worker
+   {
+      final Range range;
+      final long[] words = new long[segmentBits / 64];
+      final long[] next;
+      long segmentStart = -1;
+      int segmentLength;
+
+      Worker(Range range, long firstSegment)
+      {
+         this.range = range;
+         long low = 2 * (range.start + firstSegment * segmentBits) + 1;
+         next = new long[range.basePrimes.length];
+         for (int i = 0; i < next.length; i++)
+         {
+            long p = range.basePrimes[i];
+            long multiple = Math.max(p * p, (low + p - 1) / p * p);
+            if (multiple % 2 == 0) multiple += p;
+            next[i] = multiple / 2;
+         }
+      }
+
+      /**
+       * Sieves the segment; the workers' segments must come in increasing order.
+       */
+      void sieve(long segment)
+      {
+         segmentStart = range.start + segment * segmentBits;
+         segmentLength = (int) Math.min(segmentBits, range.last + 1 - segmentStart);
+         int wordCount = (segmentLength + 63) / 64;
+         int wheelWord = (int) (segmentStart / 64 % WHEEL_PERIOD);
+         for (int w = 0; w < wordCount; w++)
+         {
+            words[w] = WHEEL[wheelWord];
+            if (++wheelWord == WHEEL_PERIOD) wheelWord = 0;
+         }
+         if (segmentStart == 0)
+         {
+            // 1 is no prime, the wheel primes are
+            words[0] &= ~1L;
+            for (int p : WHEEL_PRIMES)
+               words[0] |= 1L << (p / 2);
+         }
+
+         long end = segmentStart + segmentLength;
+         int[] primes = range.basePrimes;
+         for (int i = 0; i < primes.length; i++)
+         {
+            long index = next[i];
+            if (index >= end) continue;
+            int p = primes[i];
+            int bit = (int) (index - segmentStart);
+            for (; bit < segmentLength; bit += p)
+               words[bit >>> 6] &= ~(1L << bit);
+            next[i] = segmentStart + bit;
+         }
+      }
+
+      /**
+       * Counts the primes of the sieved segment that are in the range.
+       */
+      long count()
+      {
+         long count = 0;
+         int wordCount = (segmentLength + 63) / 64;
+         for (int w = 0; w < wordCount; w++)
+            count += Long.bitCount(inRange(w));
+         return count;
+      }
+
+      /**
+       * Word w of the segment with the bits outside the range cleared.
+       */
+      long inRange(int w)
+      {
+         long word = words[w];
+         long wordStart = segmentStart + 64L * w;
+         if (wordStart < range.first) word &= -1L << (range.first - wordStart);
+         long bits = segmentLength - 64L * w;
+         if (bits < 64) word &= (1L << bits) - 1;
+         return word;
+      }
+   }
+
+   private class CountTask extends RecursiveTask<Long>
+   {
+      private final Range range;
+      private final long fromSegment;
+      private final long toSegment;
+      private final long perLeaf;
+
+      CountTask(Range range, long fromSegment, long toSegment, long perLeaf)
+      {
+         this.range = range;
+         this.fromSegment = fromSegment;
+         this.toSegment = toSegment;
+         this.perLeaf = perLeaf;
+      }
+
+      protected Long compute()
+      {
+         if (toSegment - fromSegment <= perLeaf)
+         {
+            Worker worker = new Worker(range, fromSegment);
+            long count = fromSegment == 0 && range.hasTwo() ? 1 : 0;
+            for (long segment = fromSegment; segment < toSegment; segment++)
+            {
+               worker.sieve(segment);
+               count += worker.count();
+            }
+            return count;
+         }
+         long middle = (fromSegment + toSegment) >>> 1;
+         CountTask left = new CountTask(range, fromSegment, middle, perLeaf);
+         left.fork();
+         long right = new CountTask(range, middle, toSegment, perLeaf).compute();
+         return right + left.join();
+      }
+   }
+
+   /**
+    * Sieves one segment at a time as the primes are consumed; splits by halving the segments left.
+    */
+   private class PrimeSpliterator implements Spliterator.OfLong
+   {
+      private final Range range;
+      private long segment;
+      private final long endSegment;
+      private Worker worker;
+      private boolean twoDone;
+      private int word;
+      private long bits;
+
+      PrimeSpliterator(Range range, long segment, long endSegment)
+      {
+         this.range = range;
+         this.segment = segment;
+         this.endSegment = endSegment;
+         twoDone = segment != 0 || !range.hasTwo();
+      }
+
+      public boolean tryAdvance(LongConsumer action)
+      {
+         if (!twoDone)
+         {
+            twoDone = true;
+            action.accept(2);
+            return true;
+         }
+         while (bits == 0)
+         {
+            if (worker != null && ++word < (worker.segmentLength + 63) / 64)
+               bits = worker.inRange(word);
+            else if (segment < endSegment)
+            {
+               if (worker == null) worker = new Worker(range, segment);
+               worker.sieve(segment++);
+               word = 0;
+               bits = worker.inRange(0);
+            }
+            else return false;
+         }
+         long index = worker.segmentStart + 64L * word + Long.numberOfTrailingZeros(bits);
+         bits &= bits - 1;
+         action.accept(2 * index + 1);
+         return true;
+      }
+
+      public Spliterator.OfLong trySplit()
+      {
+         if (worker != null || endSegment - segment < 2 * MIN_SEGMENTS_PER_TASK) return null;
+         long middle = (segment + endSegment) >>> 1;
+         PrimeSpliterator prefix = new PrimeSpliterator(range, segment, middle);
+         prefix.twoDone = twoDone;
+         twoDone = true;
+         segment = middle;
+         return prefix;
+      }
+
+      public long estimateSize()
+      {
+         return worker == null && segment == endSegment ? 0 : Long.MAX_VALUE;
+      }
+
+      public int characteristics()
+      {
+         return ORDERED | SORTED | DISTINCT | NONNULL | IMMUTABLE;
+      }
+
+      public Comparator<? super Long> getComparator()
+      {
+         return null;
+      }
+   }
+
+   /**
+    * The odd primes from 17 up to limit, by a plain sieve.
+    */
+   private static int[] basePrimes(int limit)
+   {
+      var composite = new BitSet(limit + 1);
+      var primes = new ArrayList<Integer>();
+      for (int i = 3; i <= limit; i += 2)
+      {
+         if (composite.get(i)) continue;
+         if (i >= 17) primes.add(i);
+         for (long k = (long) i * i; k <= limit; k += 2 * i)
+            composite.set((int) k);
+      }
+      return primes.stream().mapToInt(Integer::intValue).toArray();
+   }
+
+   private static long[] wheel()
+   {
+      long[] wheel = new long[WHEEL_PERIOD];
+      for (int bit = 0; bit < 64 * WHEEL_PERIOD; bit++)
+      {
+         long number = 2L * bit + 1;
+         boolean candidate = true;
+         for (int p : WHEEL_PRIMES)
+            if (number % p == 0) candidate = false;
+         if (candidate) wheel[bit / 64] |= 1L << bit;
+      }
+      return wheel;
+   }
+}
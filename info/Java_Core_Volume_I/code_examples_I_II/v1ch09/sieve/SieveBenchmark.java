@@ -0,0 +1,104 @@
+package sieve;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * This program compares the BitSet sieve of the Sieve program with the SegmentedSieve, on one thread
+ * and on all processors, with L1 and L2 sized segments, and checks that they find the same number of
+ * primes. It also runs the compiled sieve.cpp, which always sieves up to 2,000,000.
+ * Usage: java sieve.SieveBenchmark [max] [compiled sieve.cpp]
+ * e.g. g++ -O2 -o /tmp/sieve sieve.cpp && java sieve.SieveBenchmark 1000000000 /tmp/sieve
+ */
+public class SieveBenchmark
+{
+   private static final int RUNS = 5;
+
+   public static void main(String[] args) throws IOException, InterruptedException
+   {
+      long max = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000_000L;
+      if (args.length > 1)
+      {
+         System.out.println(args[1] + " (N = 2000000):");
+         var process = new ProcessBuilder(args[1]).redirectErrorStream(true).start();
+         process.getInputStream().transferTo(System.out);
+         process.waitFor();
+      }
+
+      var single = new ForkJoinPool(1);
+      var all = ForkJoinPool.commonPool();
+      var l1 = new SegmentedSieve(SegmentedSieve.L1_SEGMENT_BYTES);
+      var l2 = new SegmentedSieve(SegmentedSieve.L2_SEGMENT_BYTES);
+      String threads = "pool of " + all.getParallelism();
+      for (long n : new long[] { 2_000_000, 100_000_000, 1_000_000_000, 10_000_000_000L })
+      {
+         if (n > max) break;
+         long to = n;
+         System.out.printf("%nprimes up to %,d%n", n);
+         if (n <= Integer.MAX_VALUE - 1)
+            time("BitSet (Sieve)", () -> bitSetSieve((int) to));
+         time("segmented L1, 1 thread", () -> l1.count(0, to, single));
+         time("segmented L2, 1 thread", () -> l2.count(0, to, single));
+         time("segmented L1, " + threads, () -> l1.count(0, to, all));
+         time("segmented L1, stream", () -> l1.primes(0, to).count());
+      }
+
+      long high = 1_000_000_000_000L;
+      long width = 1_000_000_000L;
+      System.out.printf("%nprimes in [%,d, %,d]%n", high - width, high);
+      time("segmented L1, 1 thread", () -> l1.count(high - width, high, single));
+      time("segmented L2, 1 thread", () -> l2.count(high - width, high, single));
+      time("segmented L2, " + threads, () -> l2.count(high - width, high, all));
+      single.shutdown();
+   }
+
+   /**
+    * The sieve of the Sieve program.
+    */
+   public static long bitSetSieve(int n)
+   {
+      var bitSet = new BitSet(n + 1);
+      int i;
+      for (i = 2; i <= n; i++)
+         bitSet.set(i);
+      i = 2;
+      while ((long) i * i <= n)
+      {
+         if (bitSet.get(i))
+         {
+            int k = i * i;
+            while (k <= n && k > 0)
+            {
+               bitSet.clear(k);
+               k += i;
+            }
+         }
+         i++;
+      }
+      return bitSet.cardinality();
+   }
+
+   /**
+    * Prints the best of RUNS runs after a warm-up run, and the prime count.
+    */
+   private static void time(String name, Callable<Long> sieve)
+   {
+      try
+      {
+         long primes = sieve.call();
+         long best = Long.MAX_VALUE;
+         for (int run = 0; run < RUNS; run++)
+         {
+            long start = System.nanoTime();
+            primes = sieve.call();
+            best = Math.min(best, System.nanoTime() - start);
+         }
+         System.out.printf("  %-28s %,12.1f ms  %,d primes%n", name, best / 1e6, primes);
+      }
+      catch (Exception e)
+      {
+         throw new RuntimeException(e);
+      }
+   }
+}
@@ -0,0 +1,67 @@
+package bankEngines;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * Lock-free bank: balances are cents in an AtomicLongArray. A transfer takes the money out of the from
+ * account with compare-and-set (refused if it would go below zero) and then adds it to the to account.
+ * <p>
+ * Between those two steps the money is in neither account, so adding up the accounts while transfers
+ * run can be off. Transfers never create or destroy money, only deposits do, so the exact total is kept
+ * in a LongAdder that only deposits touch.
+ */
+public class AtomicBank implements Bank
+{
+   private final AtomicLongArray accounts;
+   private final LongAdder total = new LongAdder();
+
+   /**
+    * Constructs the bank.
+    * @param n the number of accounts
+    * @param initialBalance the initial balance for each account, in cents
+    */
+   public AtomicBank(int n, long initialBalance)
+   {
+      accounts = new AtomicLongArray(n);
+      for (int i = 0; i < n; i++)
+         accounts.set(i, initialBalance);
+      total.add(n * initialBalance);
+   }
+
+   public void deposit(int account, long cents)
+   {
+      accounts.addAndGet(account, cents);
+      total.add(cents);
+   }
+
+   public boolean transfer(int from, int to, long cents)
+   {
+      long balance;
+      do
+      {
+         balance = accounts.get(from);
+         if (balance < cents) return false;
+      }
+      while (!accounts.compareAndSet(from, balance, balance - cents));
+      accounts.addAndGet(to, cents);
+      return true;
+   }
+
+   public long getTotalBalance()
+   {
+      return total.sum();
+   }
+
+   public long sumOfAccounts()
+   {
+      long sum = 0;
+      for (int i = 0; i < accounts.length(); i++)
+         sum += accounts.get(i);
+      return sum;
+   }
+
+   public int size()
+   {
+      return accounts.length();
+   }
+}
@@ -0,0 +1,43 @@
+package bankEngines;
+
+/**
+ * A bank with a number of accounts holding whole cents. Implementations differ only in how they
+ * keep concurrent transfers correct, so they can be swapped in the same workload.
+ */
+public interface Bank
+{
+   /**
+    * Puts new money into an account.
+    * @param account the account
+    * @param cents the amount, in cents
+    */
+   void deposit(int account, long cents);
+
+   /**
+    * Transfers money from one account to another.
+    * @param from the account to transfer from
+    * @param to the account to transfer to
+    * @param cents the amount to transfer, in cents
+    * @return false if the from account doesn't have enough money, nothing is changed then
+    */
+   boolean transfer(int from, int to, long cents);
+
+   /**
+    * Gets the sum of all account balances. It is exact, in-flight transfers are never half counted.
+    * @return the total balance, in cents
+    */
+   long getTotalBalance();
+
+   /**
+    * Adds up the accounts one by one without stopping transfers. Only exact when no transfer is running,
+    * which makes it a check for {@link #getTotalBalance()} after a run.
+    * @return the sum of the account balances, in cents
+    */
+   long sumOfAccounts();
+
+   /**
+    * Gets the number of accounts in the bank.
+    * @return the number of accounts
+    */
+   int size();
+}
@@ -0,0 +1,84 @@
+package bankEngines;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+/**
+ * Runs the SynchBankTest workload (random transfers of up to MAX_AMOUNT between NACCOUNTS accounts),
+ * without the printing and sleeping, on every bank engine with 1, 2, 4 ... threads, and checks
+ * that no money appeared or disappeared.
+ * Usage: java bankEngines.BankBenchmark [max threads] [millis per run]
+ * @version 1.00 2026-10-17
+ */
+public class BankBenchmark
+{
+   public static final int NACCOUNTS = 100;
+   public static final long INITIAL_BALANCE = 1000_00;
+   public static final long MAX_AMOUNT = 1000_00;
+
+   public static void main(String[] args) throws InterruptedException
+   {
+      int maxThreads = args.length > 0 ? Integer.parseInt(args[0])
+         : Runtime.getRuntime().availableProcessors();
+      long millis = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+
+      var engines = new LinkedHashMap<String, Supplier<Bank>>();
+      engines.put("global lock", () -> new GlobalLockBank(NACCOUNTS, INITIAL_BALANCE));
+      engines.put("striped locks", () -> new StripedLockBank(NACCOUNTS, INITIAL_BALANCE, 64));
+      engines.put("atomic CAS", () -> new AtomicBank(NACCOUNTS, INITIAL_BALANCE));
+
+      for (var engine : engines.entrySet())
+      {
+         for (int threads = 1; threads <= maxThreads; threads *= 2)
+         {
+            // a warmup run, then the measured one
+            run(engine.getValue().get(), threads, millis / 4);
+            double opsPerSecond = run(engine.getValue().get(), threads, millis);
+            System.out.printf("%-14s %3d threads %,15.0f transfers/s%n", engine.getKey(), threads, opsPerSecond);
+         }
+      }
+   }
+
+   /**
+    * Transfers from all threads until the time is up.
+    * @return transfers per second, refused ones included
+    */
+   public static double run(Bank bank, int threads, long millis) throws InterruptedException
+   {
+      long expectedTotal = bank.getTotalBalance();
+      var done = new CountDownLatch(threads);
+      var counts = new long[threads];
+      long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+      for (int t = 0; t < threads; t++)
+      {
+         int id = t;
+         var thread = new Thread(() ->
+            {
+               ThreadLocalRandom random = ThreadLocalRandom.current();
+               long count = 0;
+               while ((count & 0xFF) != 0 || System.nanoTime() < deadline)
+               {
+                  int from = random.nextInt(bank.size());
+                  int to = random.nextInt(bank.size());
+                  bank.transfer(from, to, random.nextLong(MAX_AMOUNT));
+                  count++;
+               }
+               counts[id] = count;
+               done.countDown();
+            });
+         thread.start();
+      }
+      long start = System.nanoTime();
+      done.await();
+      double seconds = (System.nanoTime() - start) / 1e9;
+
+      if (bank.getTotalBalance() != expectedTotal || bank.sumOfAccounts() != expectedTotal)
+         throw new IllegalStateException(bank.getClass().getSimpleName() + " lost money: "
+            + bank.getTotalBalance() + " / " + bank.sumOfAccounts() + " instead of " + expectedTotal);
+      long total = 0;
+      for (long c : counts)
+         total += c;
+      return total / seconds;
+   }
+}
@@ -0,0 +1,80 @@
+package bankEngines;
+
+import java.util.*;
+import java.util.concurrent.locks.*;
+
+/**
+ * The synch.Bank approach: one lock for the whole bank. Transfers between different accounts
+ * still wait for each other. Unlike synch.Bank it doesn't wait for funds, it refuses the transfer.
+ */
+public class GlobalLockBank implements Bank
+{
+   private final long[] accounts;
+   private final Lock bankLock = new ReentrantLock();
+
+   /**
+    * Constructs the bank.
+    * @param n the number of accounts
+    * @param initialBalance the initial balance for each account, in cents
+    */
+   public GlobalLockBank(int n, long initialBalance)
+   {
+      accounts = new long[n];
+      Arrays.fill(accounts, initialBalance);
+   }
+
+   public void deposit(int account, long cents)
+   {
+      bankLock.lock();
+      try
+      {
+         accounts[account] += cents;
+      }
+      finally
+      {
+         bankLock.unlock();
+      }
+   }
+
+   public boolean transfer(int from, int to, long cents)
+   {
+      bankLock.lock();
+      try
+      {
+         if (accounts[from] < cents) return false;
+         accounts[from] -= cents;
+         accounts[to] += cents;
+         return true;
+      }
+      finally
+      {
+         bankLock.unlock();
+      }
+   }
+
+   public long getTotalBalance()
+   {
+      bankLock.lock();
+      try
+      {
+         return sumOfAccounts();
+      }
+      finally
+      {
+         bankLock.unlock();
+      }
+   }
+
+   public long sumOfAccounts()
+   {
+      long sum = 0;
+      for (long a : accounts)
+         sum += a;
+      return sum;
+   }
+
+   public int size()
+   {
+      return accounts.length;
+   }
+}
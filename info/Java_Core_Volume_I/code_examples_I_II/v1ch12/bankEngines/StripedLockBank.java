@@ -0,0 +1,106 @@
+package bankEngines;
+
+import java.util.*;
+import java.util.concurrent.locks.*;
+
+/**
+ * Accounts are spread over a fixed number of lock stripes, a transfer only locks the stripes of its
+ * two accounts. Both are always locked in ascending stripe order, so two opposite transfers can't
+ * deadlock each other.
+ */
+public class StripedLockBank implements Bank
+{
+   private final long[] accounts;
+   private final Lock[] stripes;
+   private final int mask;
+
+   /**
+    * Constructs the bank.
+    * @param n the number of accounts
+    * @param initialBalance the initial balance for each account, in cents
+    * @param stripeCount the number of locks, rounded up to a power of two
+    */
+   public StripedLockBank(int n, long initialBalance, int stripeCount)
+   {
+      accounts = new long[n];
+      Arrays.fill(accounts, initialBalance);
+      int count = Integer.highestOneBit(Math.max(1, Math.min(stripeCount, n) * 2 - 1));
+      stripes = new Lock[count];
+      for (int i = 0; i < count; i++)
+         stripes[i] = new ReentrantLock();
+      mask = count - 1;
+   }
+
+   public void deposit(int account, long cents)
+   {
+      Lock lock = stripes[account & mask];
+      lock.lock();
+      try
+      {
+         accounts[account] += cents;
+      }
+      finally
+      {
+         lock.unlock();
+      }
+   }
+
+   public boolean transfer(int from, int to, long cents)
+   {
+      int a = from & mask;
+      int b = to & mask;
+      Lock first = stripes[Math.min(a, b)];
+      Lock second = stripes[Math.max(a, b)];
+      first.lock();
+      try
+      {
+         if (second != first) second.lock();
+         try
+         {
+            if (accounts[from] < cents) return false;
+            accounts[from] -= cents;
+            accounts[to] += cents;
+            return true;
+         }
+         finally
+         {
+            if (second != first) second.unlock();
+         }
+      }
+      finally
+      {
+         first.unlock();
+      }
+   }
+
+   /**
+    * Locks every stripe in order, so the total is exact, but transfers wait meanwhile.
+    */
+   public long getTotalBalance()
+   {
+      for (Lock lock : stripes)
+         lock.lock();
+      try
+      {
+         return sumOfAccounts();
+      }
+      finally
+      {
+         for (int i = stripes.length - 1; i >= 0; i--)
+            stripes[i].unlock();
+      }
+   }
+
+   public long sumOfAccounts()
+   {
+      long sum = 0;
+      for (long a : accounts)
+         sum += a;
+      return sum;
+   }
+
+   public int size()
+   {
+      return accounts.length;
+   }
+}
@@ -0,0 +1,143 @@
+package synch;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * This program measures how many transfers the banks of the synch and synch2 packages manage
+ * while an auditor thread asks for the total balance as fast as it can. The auditor either
+ * takes the optimistic snapshot or the old blocking sum, and every total it sees is checked.
+ * The auditor only competes for the lock if it runs on a core of its own; with fewer cores
+ * than threads it mostly competes for CPU time, whichever way it reads the total.
+ * Usage: java synch.AuditBenchmark [threads] [millis]
+ */
+public class AuditBenchmark
+{
+   public static final int NACCOUNTS = 100;
+   public static final double INITIAL_BALANCE = 1000;
+   public static final double MAX_AMOUNT = 100;
+
+   /**
+    * The operations the benchmark needs, so both bank classes can be driven the same way.
+    */
+   private interface Teller
+   {
+      void transfer(int from, int to, double amount) throws InterruptedException;
+
+      double audit();
+   }
+
+   public static void main(String[] args) throws InterruptedException
+   {
+      int threads = Math.min(args.length > 0 ? Integer.parseInt(args[0]) : 8, NACCOUNTS);
+      long millis = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+
+      for (String mode : new String[] { "none", "optimistic", "blocking" })
+      {
+         var bank = new Bank(NACCOUNTS, INITIAL_BALANCE);
+         // printing every transfer under the lock would measure the formatting, not the locking
+         bank.setVerbose(false);
+         report("synch", mode, run(new Teller()
+            {
+               public void transfer(int from, int to, double amount) throws InterruptedException
+               {
+                  bank.transfer(from, to, amount);
+               }
+
+               public double audit()
+               {
+                  return mode.equals("blocking") ? bank.getTotalBalanceBlocking()
+                     : bank.getTotalBalance();
+               }
+            }, mode, threads, millis));
+
+         var bank2 = new synch2.Bank(NACCOUNTS, INITIAL_BALANCE);
+         bank2.setVerbose(false);
+         report("synch2", mode, run(new Teller()
+            {
+               public void transfer(int from, int to, double amount) throws InterruptedException
+               {
+                  bank2.transfer(from, to, amount);
+               }
+
+               public double audit()
+               {
+                  return mode.equals("blocking") ? bank2.getTotalBalanceBlocking()
+                     : bank2.getTotalBalance();
+               }
+            }, mode, threads, millis));
+      }
+   }
+
+   private static void report(String bank, String mode, long[] result)
+   {
+      System.out.printf("%-7s auditor=%-10s %,12d transfers/s %,12d audits/s %d bad totals%n",
+         bank, mode, result[0], result[1], result[2]);
+   }
+
+   /**
+    * Runs transfers (and an auditor unless mode is "none") for the given time.
+    * @return transfers per second, audits per second, and the number of wrong totals seen
+    */
+   private static long[] run(Teller teller, String mode, int threads, long millis)
+      throws InterruptedException
+   {
+      var transfers = new LongAdder();
+      var audits = new AtomicLong();
+      var badTotals = new AtomicLong();
+      var running = new AtomicBoolean(true);
+      var workers = new Thread[threads];
+      double expected = NACCOUNTS * INITIAL_BALANCE;
+
+      for (int t = 0; t < threads; t++)
+      {
+         int first = t;
+         workers[t] = new Thread(() ->
+            {
+               try
+               {
+                  int from = first;
+                  while (running.get())
+                  {
+                     // every thread only touches its own accounts and sends each amount right back,
+                     // so no balance runs dry and transfers never wait for funds, only for the lock
+                     int to = from + threads < NACCOUNTS ? from + threads : first;
+                     double amount = MAX_AMOUNT * ThreadLocalRandom.current().nextDouble();
+                     teller.transfer(from, to, amount);
+                     teller.transfer(to, from, amount);
+                     transfers.add(2);
+                     from = to;
+                  }
+               }
+               catch (InterruptedException e)
+               {
+               }
+            });
+      }
+      Thread auditor = new Thread(() ->
+         {
+            long n = 0;
+            while (running.get())
+            {
+               // the rounding errors of adding up doubles are far below one cent
+               if (Math.abs(teller.audit() - expected) > 0.01) badTotals.incrementAndGet();
+               n++;
+            }
+            audits.set(n);
+         });
+
+      for (Thread w : workers) w.start();
+      if (!mode.equals("none")) auditor.start();
+      Thread.sleep(millis);
+      running.set(false);
+      if (!mode.equals("none")) auditor.join();
+      for (Thread w : workers)
+      {
+         // a thread may be waiting for funds that nobody sends anymore
+         w.interrupt();
+         w.join();
+      }
+      return new long[] { transfers.sum() * 1000 / millis, audits.get() * 1000 / millis,
+         badTotals.get() };
+   }
+}
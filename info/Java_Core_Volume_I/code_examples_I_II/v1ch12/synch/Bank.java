@@ -5,12 +5,17 @@ import java.util.concurrent.locks.*;
 
 /**
  * A bank with a number of bank accounts that uses locks for serializing access.
+ * The total balance is read optimistically, so auditing doesn't stop transfers.
  */
 public class Bank
 {
+   private static final int OPTIMISTIC_ATTEMPTS = 8;
    private final double[] accounts;
    private Lock bankLock;
    private Condition sufficientFunds;
+   // transfers are already serialized by bankLock, its write lock only tells readers that accounts changed
+   private final StampedLock balancesLock = new StampedLock();
+   private volatile boolean verbose = true;
 
    /**
     * Constructs the bank.
@@ -38,11 +43,22 @@ public class Bank
       {
          while (accounts[from] < amount)
             sufficientFunds.await();
-         System.out.print(Thread.currentThread());
-         accounts[from] -= amount;
-         System.out.printf(" %10.2f from %d to %d", amount, from, to);
-         accounts[to] += amount;
-         System.out.printf(" Total Balance: %10.2f%n", getTotalBalance());
+         if (verbose) System.out.print(Thread.currentThread());
+         long stamp = balancesLock.writeLock();
+         try
+         {
+            accounts[from] -= amount;
+            accounts[to] += amount;
+         }
+         finally
+         {
+            balancesLock.unlockWrite(stamp);
+         }
+         if (verbose)
+         {
+            System.out.printf(" %10.2f from %d to %d", amount, from, to);
+            System.out.printf(" Total Balance: %10.2f%n", getTotalBalance());
+         }
          sufficientFunds.signalAll();
       }
       finally
@@ -52,20 +68,42 @@ public class Bank
    }
 
    /**
-    * Gets the sum of all account balances.
+    * Gets the sum of all account balances without blocking transfers. The accounts are added up
+    * optimistically and the sum is only used if no transfer happened meanwhile, so it's always
+    * a consistent snapshot. Only after several failed tries it waits for a transfer to finish.
     * @return the total balance
     */
    public double getTotalBalance()
    {
-      bankLock.lock();
+      for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++)
+      {
+         long stamp = balancesLock.tryOptimisticRead();
+         if (stamp == 0) continue;
+         double sum = sum();
+         if (balancesLock.validate(stamp)) return sum;
+      }
+      long stamp = balancesLock.readLock();
       try
       {
-         double sum = 0;
-
-         for (double a : accounts)
-            sum += a;
+         return sum();
+      }
+      finally
+      {
+         balancesLock.unlockRead(stamp);
+      }
+   }
 
-         return sum;
+   /**
+    * Gets the sum of all account balances the way it used to be done, under the bank lock,
+    * so every transfer waits while it runs. Kept to compare with {@link #getTotalBalance()}.
+    * @return the total balance
+    */
+   public double getTotalBalanceBlocking()
+   {
+      bankLock.lock();
+      try
+      {
+         return sum();
       }
       finally
       {
@@ -73,6 +111,26 @@ public class Bank
       }
    }
 
+   private double sum()
+   {
+      double sum = 0;
+
+      for (double a : accounts)
+         sum += a;
+
+      return sum;
+   }
+
+   /**
+    * Turns the line that every transfer prints on or off. Formatting it happens while the
+    * transfer holds the lock, so with it on the lock is mostly held for printing.
+    * @param verbose whether transfers are printed
+    */
+   public void setVerbose(boolean verbose)
+   {
+      this.verbose = verbose;
+   }
+
    /**
     * Gets the number of accounts in the bank.
     * @return the number of accounts
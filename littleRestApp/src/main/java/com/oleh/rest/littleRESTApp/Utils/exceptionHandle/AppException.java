@@ -0,0 +1,14 @@
+package com.oleh.rest.littleRESTApp.Utils.exceptionHandle;
+
+/**
+ * Base for the app's own exceptions. They are expected client errors and GlobalExceptionHandler never
+ * prints their stack, so with -Dapp.errors.stackTrace=false filling the stack trace is skipped,
+ * which is the most expensive part of throwing.
+ */
+public abstract class AppException extends RuntimeException {
+    static final boolean WRITABLE_STACK_TRACE = !"false".equalsIgnoreCase(System.getProperty("app.errors.stackTrace"));
+
+    protected AppException(String message) {
+        super(message, null, true, WRITABLE_STACK_TRACE);
+    }
+}
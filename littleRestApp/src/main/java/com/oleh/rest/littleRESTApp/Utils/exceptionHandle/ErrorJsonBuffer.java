@@ -0,0 +1,148 @@
+package com.oleh.rest.littleRESTApp.Utils.exceptionHandle;
+
+import java.time.LocalDate;
+
+/**
+ * Growable byte buffer that error JSON is rendered into. Instances are reused by {@link ErrorResponseWriter},
+ * so appending strings, numbers and timestamps must not allocate.
+ */
+public final class ErrorJsonBuffer {
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private byte[] bytes;
+    private int length;
+    // "yyyy-MM-ddT" of the last rendered day, rebuilt once a day
+    private long cachedEpochDay = Long.MIN_VALUE;
+    private final byte[] cachedDay = new byte[11];
+
+    public ErrorJsonBuffer(int initialCapacity) {
+        bytes = new byte[initialCapacity];
+    }
+
+    public byte[] bytes() {
+        return bytes;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public int capacity() {
+        return bytes.length;
+    }
+
+    public ErrorJsonBuffer reset() {
+        length = 0;
+        return this;
+    }
+
+    public ErrorJsonBuffer append(byte[] raw) {
+        ensureCapacity(raw.length);
+        System.arraycopy(raw, 0, bytes, length, raw.length);
+        length += raw.length;
+        return this;
+    }
+
+    /**
+     * Writes the chars as the inside of a JSON string: UTF-8 encoded, quotes, backslashes and control chars escaped.
+     */
+    public ErrorJsonBuffer appendJsonString(CharSequence text) {
+        if (text == null) {
+            return this;
+        }
+        int size = text.length();
+        for (int i = 0; i < size; i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                put((byte) '\\');
+                put((byte) c);
+            } else if (c < 0x20) {
+                ensureCapacity(6);
+                bytes[length++] = '\\';
+                bytes[length++] = 'u';
+                bytes[length++] = '0';
+                bytes[length++] = '0';
+                bytes[length++] = HEX[c >> 4];
+                bytes[length++] = HEX[c & 0xF];
+            } else if (c < 0x80) {
+                put((byte) c);
+            } else if (c < 0x800) {
+                ensureCapacity(2);
+                bytes[length++] = (byte) (0xC0 | c >> 6);
+                bytes[length++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < size && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                ensureCapacity(4);
+                bytes[length++] = (byte) (0xF0 | codePoint >> 18);
+                bytes[length++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                bytes[length++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                bytes[length++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                put((byte) '?');
+            } else {
+                ensureCapacity(3);
+                bytes[length++] = (byte) (0xE0 | c >> 12);
+                bytes[length++] = (byte) (0x80 | c >> 6 & 0x3F);
+                bytes[length++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * ISO-8601 UTC timestamp, always with millis: 2024-09-01T10:15:30.123Z.
+     * Only the date part goes through java.time, and only when the day changes.
+     */
+    public ErrorJsonBuffer appendTimestamp(long epochMillis) {
+        long epochDay = Math.floorDiv(epochMillis, MILLIS_PER_DAY);
+        if (epochDay != cachedEpochDay) {
+            LocalDate date = LocalDate.ofEpochDay(epochDay);
+            int year = date.getYear();
+            if (year < 0 || year > 9999) {
+                throw new IllegalArgumentException("Timestamp out of range: " + epochMillis);
+            }
+            writeDigits(cachedDay, 0, year, 4);
+            cachedDay[4] = '-';
+            writeDigits(cachedDay, 5, date.getMonthValue(), 2);
+            cachedDay[7] = '-';
+            writeDigits(cachedDay, 8, date.getDayOfMonth(), 2);
+            cachedDay[10] = 'T';
+            cachedEpochDay = epochDay;
+        }
+        append(cachedDay);
+
+        int millisOfDay = (int) Math.floorMod(epochMillis, MILLIS_PER_DAY);
+        ensureCapacity(13);
+        writeDigits(bytes, length, millisOfDay / 3_600_000, 2);
+        bytes[length + 2] = ':';
+        writeDigits(bytes, length + 3, millisOfDay / 60_000 % 60, 2);
+        bytes[length + 5] = ':';
+        writeDigits(bytes, length + 6, millisOfDay / 1000 % 60, 2);
+        bytes[length + 8] = '.';
+        writeDigits(bytes, length + 9, millisOfDay % 1000, 3);
+        bytes[length + 12] = 'Z';
+        length += 13;
+        return this;
+    }
+
+    private static void writeDigits(byte[] target, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            target[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private void put(byte b) {
+        ensureCapacity(1);
+        bytes[length++] = b;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > bytes.length) {
+            byte[] bigger = new byte[Math.max(bytes.length * 2, length + extra)];
+            System.arraycopy(bytes, 0, bigger, 0, length);
+            bytes = bigger;
+        }
+    }
+}
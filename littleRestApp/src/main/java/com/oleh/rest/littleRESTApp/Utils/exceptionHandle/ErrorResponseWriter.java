@@ -0,0 +1,94 @@
+package com.oleh.rest.littleRESTApp.Utils.exceptionHandle;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes error bodies straight to the response without Jackson:
+ * {"timestamp":"...","status":404,"error":"Not Found","message":"...","details":"uri=/api/..."}
+ * The constant part for every {@link HttpStatus} is encoded once, the variable parts are rendered into
+ * pooled {@link ErrorJsonBuffer}s, so a burst of errors doesn't produce garbage per response.
+ */
+@Component
+public class ErrorResponseWriter {
+    private static final int POOL_SIZE = 64;
+    // don't keep buffers that grew because of one huge message
+    private static final int MAX_POOLED_CAPACITY = 16 * 1024;
+    private static final int INITIAL_CAPACITY = 512;
+
+    private static final byte[] TIMESTAMP_FIELD = ascii("{\"timestamp\":\"");
+    private static final byte[] DETAILS_FIELD = ascii("\",\"details\":\"");
+    private static final byte[] DETAILS_URI_FIELD = ascii("\",\"details\":\"uri=");
+    private static final byte[] END = ascii("\"}");
+
+    private final byte[][] statusTemplates;
+    private final BlockingQueue<ErrorJsonBuffer> pool = new ArrayBlockingQueue<>(POOL_SIZE);
+    private final Clock clock = Clock.systemUTC();
+
+    public ErrorResponseWriter() {
+        HttpStatus[] statuses = HttpStatus.values();
+        statusTemplates = new byte[statuses.length][];
+        for (HttpStatus status : statuses) {
+            // ","status":404,"error":"Not Found","message":"
+            statusTemplates[status.ordinal()] = ("\",\"status\":" + status.value()
+                    + ",\"error\":\"" + status.getReasonPhrase() + "\",\"message\":\"").getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * details is written as "uri=" + requestUri, the same as WebRequest.getDescription(false) gives.
+     */
+    public void writeForUri(HttpServletResponse response, HttpStatus status, String message, String requestUri) throws IOException {
+        write(response, status, message, requestUri, true);
+    }
+
+    public void write(HttpServletResponse response, HttpStatus status, String message, String details) throws IOException {
+        write(response, status, message, details, false);
+    }
+
+    /**
+     * Renders the body into the given buffer, public so benchmarks can measure rendering without a servlet response.
+     */
+    public ErrorJsonBuffer render(ErrorJsonBuffer buffer, HttpStatus status, CharSequence message,
+                                  CharSequence details, boolean uriDetails, long epochMillis) {
+        return buffer.reset()
+                .append(TIMESTAMP_FIELD)
+                .appendTimestamp(epochMillis)
+                .append(statusTemplates[status.ordinal()])
+                .appendJsonString(message)
+                .append(uriDetails ? DETAILS_URI_FIELD : DETAILS_FIELD)
+                .appendJsonString(details)
+                .append(END);
+    }
+
+    private void write(HttpServletResponse response, HttpStatus status, String message, String details,
+                       boolean uriDetails) throws IOException {
+        ErrorJsonBuffer buffer = pool.poll();
+        if (buffer == null) {
+            buffer = new ErrorJsonBuffer(INITIAL_CAPACITY);
+        }
+        try {
+            render(buffer, status, message, details, uriDetails, clock.millis());
+            response.setStatus(status.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(buffer.length());
+            response.getOutputStream().write(buffer.bytes(), 0, buffer.length());
+        } finally {
+            if (buffer.capacity() <= MAX_POOLED_CAPACITY) {
+                pool.offer(buffer);
+            }
+        }
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
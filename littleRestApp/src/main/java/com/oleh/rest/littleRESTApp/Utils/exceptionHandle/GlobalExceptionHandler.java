@@ -1,41 +1,76 @@
 package com.oleh.rest.littleRESTApp.Utils.exceptionHandle;
 
+import com.oleh.rest.littleRESTApp.metrics.AppMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.util.List;
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
+    private final ErrorResponseWriter errorWriter;
+    private final AppMetrics metrics;
+
+    public GlobalExceptionHandler(ErrorResponseWriter errorWriter, AppMetrics metrics) {
+        this.errorWriter = errorWriter;
+        this.metrics = metrics;
+    }
 
     // Handle specific exceptions
     @ExceptionHandler(GreetingNotValidException.class)
-    public ResponseEntity<?> handleNotValidGreeting(GreetingNotValidException ex, WebRequest request) {
-        ErrorResponse errorDetails = new ErrorResponse(HttpStatus.NOT_FOUND, ex.getMessage(), request.getDescription(false));
-        return new ResponseEntity<>(errorDetails, HttpStatus.NOT_FOUND);
+    public void handleNotValidGreeting(GreetingNotValidException ex, HttpServletRequest request,
+                                       HttpServletResponse response) throws IOException {
+        metrics.recordError(ex);
+        errorWriter.writeForUri(response, HttpStatus.NOT_FOUND, ex.getMessage(), request.getRequestURI());
+    }
+
+    @ExceptionHandler(GreetingNotFoundException.class)
+    public void handleGreetingNotFound(GreetingNotFoundException ex, HttpServletRequest request,
+                                       HttpServletResponse response) throws IOException {
+        metrics.recordError(ex);
+        errorWriter.writeForUri(response, HttpStatus.NOT_FOUND, ex.getMessage(), request.getRequestURI());
+    }
+
+    @ExceptionHandler(GreetingVersionMismatchException.class)
+    public void handleGreetingVersionMismatch(GreetingVersionMismatchException ex, HttpServletRequest request,
+                                              HttpServletResponse response) throws IOException {
+        metrics.recordError(ex);
+        errorWriter.writeForUri(response, HttpStatus.PRECONDITION_FAILED, ex.getMessage(), request.getRequestURI());
+    }
+
+    @ExceptionHandler(IfMatchNotValidException.class)
+    public void handleIfMatchNotValid(IfMatchNotValidException ex, HttpServletRequest request,
+                                      HttpServletResponse response) throws IOException {
+        metrics.recordError(ex);
+        errorWriter.writeForUri(response, HttpStatus.BAD_REQUEST, ex.getMessage(), request.getRequestURI());
     }
 
     // Handle global exceptions
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<?> handleGlobalException(Exception ex, WebRequest request) {
-        ErrorResponse errorDetails = new ErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage(), request.getDescription(false));
-        return new ResponseEntity<>(errorDetails, HttpStatus.INTERNAL_SERVER_ERROR);
+    public void handleGlobalException(Exception ex, HttpServletRequest request,
+                                      HttpServletResponse response) throws IOException {
+        metrics.recordError(ex);
+        errorWriter.writeForUri(response, HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage(), request.getRequestURI());
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<ErrorResponse> handleValidationExceptions(MethodArgumentNotValidException ex) {
-        List<String> errors = ex.getBindingResult()
-                .getFieldErrors()
-                .stream()
-                .map(error -> error.getField() + ": " + error.getDefaultMessage())
-                .toList();
-
-        ErrorResponse errorDetails = new ErrorResponse(HttpStatus.BAD_REQUEST, "Validation Failed", errors.toString());
-        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+    public void handleValidationExceptions(MethodArgumentNotValidException ex,
+                                           HttpServletResponse response) throws IOException {
+        metrics.recordError(ex);
+        List<FieldError> fieldErrors = ex.getBindingResult().getFieldErrors();
+        StringBuilder errors = new StringBuilder(fieldErrors.size() * 32).append('[');
+        for (int i = 0; i < fieldErrors.size(); i++) {
+            if (i > 0) {
+                errors.append(", ");
+            }
+            errors.append(fieldErrors.get(i).getField()).append(": ").append(fieldErrors.get(i).getDefaultMessage());
+        }
+        errorWriter.write(response, HttpStatus.BAD_REQUEST, "Validation Failed", errors.append(']').toString());
     }
 }
-
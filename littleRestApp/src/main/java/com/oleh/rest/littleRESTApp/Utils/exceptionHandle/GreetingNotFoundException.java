@@ -0,0 +1,7 @@
+package com.oleh.rest.littleRESTApp.Utils.exceptionHandle;
+
+public class GreetingNotFoundException extends AppException {
+    public GreetingNotFoundException(String message) {
+        super(message);
+    }
+}
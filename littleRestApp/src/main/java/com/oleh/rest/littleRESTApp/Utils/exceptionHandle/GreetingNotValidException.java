@@ -1,6 +1,6 @@
 package com.oleh.rest.littleRESTApp.Utils.exceptionHandle;
 
-public class GreetingNotValidException extends RuntimeException {
+public class GreetingNotValidException extends AppException {
     public GreetingNotValidException(String message) {
         super(message);
     }
@@ -0,0 +1,7 @@
+package com.oleh.rest.littleRESTApp.Utils.exceptionHandle;
+
+public class GreetingVersionMismatchException extends AppException {
+    public GreetingVersionMismatchException(String key, long expectedVersion, long actualVersion) {
+        super(String.format("Greeting \"%s\" has version %d, but %d was expected", key, actualVersion, expectedVersion));
+    }
+}
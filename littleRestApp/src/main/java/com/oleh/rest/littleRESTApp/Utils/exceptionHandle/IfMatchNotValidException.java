@@ -0,0 +1,7 @@
+package com.oleh.rest.littleRESTApp.Utils.exceptionHandle;
+
+public class IfMatchNotValidException extends AppException {
+    public IfMatchNotValidException(String message) {
+        super(message);
+    }
+}
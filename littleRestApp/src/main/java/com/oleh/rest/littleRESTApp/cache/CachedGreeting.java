@@ -0,0 +1,15 @@
+package com.oleh.rest.littleRESTApp.cache;
+
+import com.oleh.rest.littleRESTApp.models.Greeting;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Ready to write GET response for one {@link Greeting}: encoded body and ETag are computed once per version.
+ */
+public record CachedGreeting(Greeting greeting, byte[] body, String eTag) {
+
+    public static CachedGreeting of(Greeting greeting) {
+        return new CachedGreeting(greeting, greeting.message().getBytes(StandardCharsets.UTF_8), greeting.eTag());
+    }
+}
@@ -0,0 +1,105 @@
+package com.oleh.rest.littleRESTApp.cache;
+
+import com.oleh.rest.littleRESTApp.Utils.exceptionHandle.GreetingNotFoundException;
+import com.oleh.rest.littleRESTApp.services.GreetingStore;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Answers GET /api/greet and /api/greet/{key} from {@link GreetingResponseCache} before the request
+ * reaches the controller. A matching If-None-Match gets 304 without a body.
+ * Can be turned off with greeting.response-cache.enabled=false.
+ */
+@Component
+@ConditionalOnProperty(name = "greeting.response-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class GreetingCacheFilter extends OncePerRequestFilter {
+    private static final String GREET_PATH = "/api/greet";
+    private static final String GREET_KEY_PATTERN = GREET_PATH + "/{key}";
+    private static final String CACHE_CONTROL = "no-cache";
+    private static final String CONTENT_TYPE = MediaType.TEXT_PLAIN_VALUE + ";charset=UTF-8";
+
+    private final GreetingResponseCache responseCache;
+
+    public GreetingCacheFilter(GreetingResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod()) || greetingKey(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        CachedGreeting cached;
+        try {
+            cached = responseCache.get(greetingKey(request));
+        } catch (GreetingNotFoundException e) {
+            // let the controller and GlobalExceptionHandler build the error
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // the controller is skipped, so tell MetricsFilter which endpoint this was
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                request.getRequestURI().endsWith(GREET_PATH) ? GREET_PATH : GREET_KEY_PATTERN);
+        response.setHeader(HttpHeaders.ETAG, cached.eTag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), cached.eTag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(CONTENT_TYPE);
+        response.setContentLength(cached.body().length);
+        response.getOutputStream().write(cached.body());
+    }
+
+    private static String greetingKey(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.equals(GREET_PATH)) {
+            return GreetingStore.DEFAULT_KEY;
+        }
+        if (path.startsWith(GREET_PATH + "/")) {
+            String key = path.substring(GREET_PATH.length() + 1);
+            if (!key.isEmpty() && key.indexOf('/') < 0) {
+                return UriUtils.decode(key, StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    // If-None-Match may hold several tags, weak ones are fine for GET
+    private static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.equals("*")) {
+                return true;
+            }
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,41 @@
+package com.oleh.rest.littleRESTApp.cache;
+
+import com.oleh.rest.littleRESTApp.models.Greeting;
+import com.oleh.rest.littleRESTApp.services.GreetingStore;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Encoded greeting bodies per key. An entry is valid only while it belongs to the exact {@link Greeting}
+ * instance the store holds, so a PUT or DELETE that swaps the greeting invalidates the entry in the same
+ * compare-and-set, there is no window where a stale body can be served for a new version.
+ */
+@Component
+public class GreetingResponseCache {
+    private final GreetingStore greetingStore;
+    private final ConcurrentMap<String, CachedGreeting> responses = new ConcurrentHashMap<>();
+
+    public GreetingResponseCache(GreetingStore greetingStore) {
+        this.greetingStore = greetingStore;
+    }
+
+    public CachedGreeting get(String key) {
+        Greeting current = greetingStore.get(key);
+        CachedGreeting cached = responses.get(key);
+        if (cached != null && cached.greeting() == current) {
+            return cached;
+        }
+        CachedGreeting fresh = CachedGreeting.of(current);
+        responses.put(key, fresh);
+        return fresh;
+    }
+
+    /**
+     * Drops the entry right away instead of waiting for the next GET, used when a greeting is removed.
+     */
+    public void invalidate(String key) {
+        responses.remove(key);
+    }
+}
@@ -1,10 +1,17 @@
 package com.oleh.rest.littleRESTApp.controllers;
 
 import com.oleh.rest.littleRESTApp.Utils.exceptionHandle.GreetingNotValidException;
+import com.oleh.rest.littleRESTApp.Utils.exceptionHandle.IfMatchNotValidException;
+import com.oleh.rest.littleRESTApp.cache.GreetingResponseCache;
+import com.oleh.rest.littleRESTApp.models.Greeting;
+import com.oleh.rest.littleRESTApp.services.GreetingStore;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Objects;
@@ -13,13 +20,24 @@ import java.util.Objects;
 @Slf4j
 @RequestMapping("/api")
 public class GreetingController {
-    private final String defaultGreetingMsg = "Hello, dear visitor. Make yourself comfortable.";
-    private String greetingMsg = defaultGreetingMsg;
+    private final GreetingStore greetingStore;
+    private final GreetingResponseCache responseCache;
+
+    public GreetingController(GreetingStore greetingStore, GreetingResponseCache responseCache) {
+        this.greetingStore = greetingStore;
+        this.responseCache = responseCache;
+    }
 
     @GetMapping("/greet")
-    public String getGreeting() {
-        log.debug("Going to return a greeting: \"{}\"", greetingMsg);
-        return greetingMsg;
+    public ResponseEntity<String> getGreeting() {
+        return getGreeting(GreetingStore.DEFAULT_KEY);
+    }
+
+    @GetMapping("/greet/{key}")
+    public ResponseEntity<String> getGreeting(@PathVariable String key) {
+        Greeting greeting = greetingStore.get(key);
+        log.debug("Going to return a greeting \"{}\": \"{}\"", key, greeting.message());
+        return ResponseEntity.ok().eTag(greeting.eTag()).cacheControl(CacheControl.noCache()).body(greeting.message());
     }
 
     @PostMapping("/greet")
@@ -33,19 +51,64 @@ public class GreetingController {
     }
 
     @PutMapping("/greet")
-    public String updateGreeting(
+    public ResponseEntity<String> updateGreeting(
+            @NotNull(message = "Update greeting message shouldn't be null")
+            @Size(min = 1, message = "Update greeting message shouldn't be empty")
+            @RequestBody String message,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return updateGreeting(GreetingStore.DEFAULT_KEY, message, ifMatch);
+    }
+
+    @PutMapping("/greet/{key}")
+    public ResponseEntity<String> updateGreeting(
+            @PathVariable String key,
             @NotNull(message = "Update greeting message shouldn't be null")
             @Size(min = 1, message = "Update greeting message shouldn't be empty")
-            @RequestBody String message) {
-        greetingMsg = message;
-        log.debug("Updated greeting message to: \"{}\"", greetingMsg);
-        return String.format("Updated greeting message to: \"%s\"", greetingMsg);
+            @RequestBody String message,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Greeting greeting = greetingStore.update(key, message, parseVersion(ifMatch));
+        log.debug("Updated greeting \"{}\" to: \"{}\"", key, greeting.message());
+        return ResponseEntity.ok().eTag(greeting.eTag())
+                .body(String.format("Updated greeting message to: \"%s\"", greeting.message()));
     }
 
     @DeleteMapping("/greet")
-    public String delete() {
-        greetingMsg = defaultGreetingMsg;
-        log.debug("Greeting message reset to default");
-        return "Greeting message reset to default";
+    public ResponseEntity<String> delete(
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return delete(GreetingStore.DEFAULT_KEY, ifMatch);
+    }
+
+    @DeleteMapping("/greet/{key}")
+    public ResponseEntity<String> delete(
+            @PathVariable String key,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Greeting greeting = greetingStore.reset(key, parseVersion(ifMatch));
+        if (GreetingStore.DEFAULT_KEY.equals(key)) {
+            log.debug("Greeting message reset to default");
+            return ResponseEntity.ok().eTag(greeting.eTag()).body("Greeting message reset to default");
+        }
+        responseCache.invalidate(key);
+        log.debug("Greeting \"{}\" removed", key);
+        return ResponseEntity.ok(String.format("Greeting \"%s\" removed", key));
+    }
+
+    /**
+     * If-Match comes as "3", W/"3" or *, no header or * means the update is unconditional.
+     * Anything else is a bad request, not a failed precondition.
+     */
+    private static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        tag = tag.replace("\"", "");
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new IfMatchNotValidException(String.format("If-Match \"%s\" is not a greeting version", ifMatch));
+        }
     }
 }
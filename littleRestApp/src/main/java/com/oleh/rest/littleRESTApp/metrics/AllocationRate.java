@@ -0,0 +1,47 @@
+package com.oleh.rest.littleRESTApp.metrics;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Heap allocation rate between two calls, taken from the per-thread allocated bytes counters of HotSpot.
+ * Threads that died between calls are not counted, so it's a lower bound. Returns -1 on JVMs without the counters.
+ */
+class AllocationRate {
+    private final com.sun.management.ThreadMXBean threads;
+    private long lastBytes;
+    private long lastNanos;
+
+    AllocationRate() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean sunBean && sunBean.isThreadAllocatedMemorySupported()) {
+            sunBean.setThreadAllocatedMemoryEnabled(true);
+            threads = sunBean;
+            lastBytes = allocatedBytes();
+        } else {
+            threads = null;
+        }
+        lastNanos = System.nanoTime();
+    }
+
+    synchronized double bytesPerSecond() {
+        if (threads == null) {
+            return -1;
+        }
+        long bytes = allocatedBytes();
+        long now = System.nanoTime();
+        double rate = Math.max(0, bytes - lastBytes) / ((now - lastNanos) / 1e9);
+        lastBytes = bytes;
+        lastNanos = now;
+        return rate;
+    }
+
+    private long allocatedBytes() {
+        long total = 0;
+        for (long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (allocated > 0) {
+                total += allocated;
+            }
+        }
+        return total;
+    }
+}
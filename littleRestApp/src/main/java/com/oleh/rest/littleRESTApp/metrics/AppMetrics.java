@@ -0,0 +1,132 @@
+package com.oleh.rest.littleRESTApp.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request latency per endpoint, error counts per exception type and a few JVM gauges,
+ * rendered in the Prometheus text format by {@link MetricsController}.
+ * <p>
+ * The recording methods only look up an existing histogram/counter and increment it,
+ * new objects are created once, on the first request to an endpoint or the first error of a type.
+ */
+@Component
+public class AppMetrics {
+    private static final String[] METHODS = {"GET", "POST", "PUT", "DELETE", "OTHER"};
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    public static final String UNMATCHED = "unmatched";
+
+    // one map per HTTP method, so the key is the path pattern string Spring already has, no concatenation
+    @SuppressWarnings("unchecked")
+    private final ConcurrentMap<String, LatencyHistogram>[] latencies = new ConcurrentMap[METHODS.length];
+    private final ConcurrentMap<Class<?>, LongAdder> errors = new ConcurrentHashMap<>();
+    private final AllocationRate allocationRate = new AllocationRate();
+
+    public AppMetrics() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    public void recordRequest(String method, String pathPattern, long nanos) {
+        ConcurrentMap<String, LatencyHistogram> byPattern = latencies[methodIndex(method)];
+        String key = pathPattern == null ? UNMATCHED : pathPattern;
+        LatencyHistogram histogram = byPattern.get(key);
+        if (histogram == null) {
+            histogram = byPattern.computeIfAbsent(key, ignored -> new LatencyHistogram());
+        }
+        histogram.record(nanos);
+    }
+
+    public void recordError(Throwable ex) {
+        LongAdder counter = errors.get(ex.getClass());
+        if (counter == null) {
+            counter = errors.computeIfAbsent(ex.getClass(), ignored -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+
+        out.append("# HELP http_server_requests_seconds Request latency per endpoint\n");
+        out.append("# TYPE http_server_requests_seconds summary\n");
+        for (int i = 0; i < METHODS.length; i++) {
+            for (Map.Entry<String, LatencyHistogram> entry : latencies[i].entrySet()) {
+                String labels = "method=\"" + METHODS[i] + "\",uri=\"" + escape(entry.getKey()) + "\"";
+                LatencyHistogram histogram = entry.getValue();
+                for (double quantile : QUANTILES) {
+                    sample(out, "http_server_requests_seconds", labels + ",quantile=\"" + quantile + "\"",
+                            seconds(histogram.quantileNanos(quantile)));
+                }
+                sample(out, "http_server_requests_seconds_count", labels, histogram.count());
+                sample(out, "http_server_requests_seconds_sum", labels, seconds(histogram.sumNanos()));
+                sample(out, "http_server_requests_seconds_max", labels, seconds(histogram.maxNanos()));
+            }
+        }
+
+        out.append("# HELP http_server_errors_total Errors handled by GlobalExceptionHandler per exception type\n");
+        out.append("# TYPE http_server_errors_total counter\n");
+        for (Map.Entry<Class<?>, LongAdder> entry : errors.entrySet()) {
+            sample(out, "http_server_errors_total", "exception=\"" + entry.getKey().getSimpleName() + "\"",
+                    entry.getValue().sum());
+        }
+
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        out.append("# TYPE jvm_memory_heap_used_bytes gauge\n");
+        sample(out, "jvm_memory_heap_used_bytes", null, heap.getUsed());
+        out.append("# TYPE jvm_memory_heap_committed_bytes gauge\n");
+        sample(out, "jvm_memory_heap_committed_bytes", null, heap.getCommitted());
+
+        out.append("# HELP jvm_allocation_rate_bytes_per_second Heap allocation rate since the previous scrape\n");
+        out.append("# TYPE jvm_allocation_rate_bytes_per_second gauge\n");
+        sample(out, "jvm_allocation_rate_bytes_per_second", null, allocationRate.bytesPerSecond());
+
+        out.append("# TYPE jvm_gc_collections_total counter\n");
+        out.append("# TYPE jvm_gc_collection_seconds_total counter\n");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            String labels = "gc=\"" + escape(gc.getName()) + "\"";
+            sample(out, "jvm_gc_collections_total", labels, gc.getCollectionCount());
+            sample(out, "jvm_gc_collection_seconds_total", labels, gc.getCollectionTime() / 1000.0);
+        }
+        return out.toString();
+    }
+
+    private static int methodIndex(String method) {
+        switch (method) {
+            case "GET":
+                return 0;
+            case "POST":
+                return 1;
+            case "PUT":
+                return 2;
+            case "DELETE":
+                return 3;
+            default:
+                return 4;
+        }
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (labels != null) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1e9;
+    }
+
+    private static String escape(String label) {
+        return label.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,87 @@
+package com.oleh.rest.littleRESTApp.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HDR-style histogram of nanosecond latencies: every power of two is split into 16 linear sub-buckets,
+ * so any value is kept with at most 1/16 relative error, from 1ns up to Long.MAX_VALUE in 960 buckets.
+ * {@link #record(long)} is a few atomic increments, it never locks and never allocates.
+ * Values are kept since start, there is no decay.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(bucketIndex(value));
+        count.increment();
+        sum.add(value);
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long sumNanos() {
+        return sum.sum();
+    }
+
+    public long maxNanos() {
+        return max.get();
+    }
+
+    /**
+     * Upper bound of the bucket holding the given quantile (0..1), 0 if nothing was recorded.
+     * Buckets are read one by one while writers go on, so under load the result is approximate.
+     */
+    public long quantileNanos(double quantile) {
+        long total = 0;
+        long[] snapshot = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) & (SUB_BUCKET_COUNT - 1));
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index >> SUB_BUCKET_BITS) - 1;
+        long lower = (long) (SUB_BUCKET_COUNT + (index & (SUB_BUCKET_COUNT - 1))) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,20 @@
+package com.oleh.rest.littleRESTApp.metrics;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class MetricsController {
+    private static final String PROMETHEUS_TEXT = "text/plain;version=0.0.4;charset=UTF-8";
+
+    private final AppMetrics metrics;
+
+    public MetricsController(AppMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @GetMapping(value = "/metrics", produces = PROMETHEUS_TEXT)
+    public String scrape() {
+        return metrics.scrape();
+    }
+}
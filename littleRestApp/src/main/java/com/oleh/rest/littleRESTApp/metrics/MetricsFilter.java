@@ -0,0 +1,40 @@
+package com.oleh.rest.littleRESTApp.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Times every request, outermost filter so cached responses and error handling are included.
+ * The endpoint is the matched path pattern (e.g. /api/greet/{key}), not the raw URI,
+ * so the number of histograms stays bounded.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MetricsFilter extends OncePerRequestFilter {
+    private final AppMetrics metrics;
+
+    public MetricsFilter(AppMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            metrics.recordRequest(request.getMethod(), pattern instanceof String s ? s : null, System.nanoTime() - start);
+        }
+    }
+}
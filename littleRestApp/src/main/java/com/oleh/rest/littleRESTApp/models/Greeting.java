@@ -0,0 +1,12 @@
+package com.oleh.rest.littleRESTApp.models;
+
+/**
+ * Immutable greeting snapshot. Every change produces a new instance with a bigger version,
+ * the version is used as an ETag so clients can do conditional updates.
+ */
+public record Greeting(String message, long version) {
+
+    public String eTag() {
+        return "\"" + version + "\"";
+    }
+}
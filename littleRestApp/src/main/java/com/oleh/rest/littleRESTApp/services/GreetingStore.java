@@ -0,0 +1,150 @@
+package com.oleh.rest.littleRESTApp.services;
+
+import com.oleh.rest.littleRESTApp.Utils.exceptionHandle.GreetingNotFoundException;
+import com.oleh.rest.littleRESTApp.Utils.exceptionHandle.GreetingVersionMismatchException;
+import com.oleh.rest.littleRESTApp.models.Greeting;
+import org.springframework.stereotype.Service;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps greetings per key. Each key holds an {@link AtomicReference} to an immutable {@link Greeting},
+ * so reads never block and writers race with compare-and-set instead of a lock.
+ * The default greeting always exists, other keys are created on the first update.
+ * <p>
+ * A greeting is deleted by swapping in a tombstone with the same compare-and-set, so a conditional delete
+ * and a concurrent update can't both win, and only then is the key unlinked from the map. Writers that find
+ * a tombstone treat the key as missing. A recreated key starts above every version ever deleted, so an
+ * ETag from before the delete never matches the new greeting.
+ */
+@Service
+public class GreetingStore {
+    public static final String DEFAULT_KEY = "default";
+    public static final String DEFAULT_GREETING_MSG = "Hello, dear visitor. Make yourself comfortable.";
+
+    private final ConcurrentMap<String, AtomicReference<Greeting>> greetings = new ConcurrentHashMap<>();
+    /** Highest version of any deleted greeting, new keys start after it. */
+    private final AtomicLong deletedVersion = new AtomicLong();
+
+    public GreetingStore() {
+        greetings.put(DEFAULT_KEY, new AtomicReference<>(new Greeting(DEFAULT_GREETING_MSG, 1)));
+    }
+
+    public Greeting get(String key) {
+        AtomicReference<Greeting> ref = greetings.get(key);
+        Greeting greeting = ref == null ? null : ref.get();
+        if (greeting == null || isTombstone(greeting)) {
+            throw notFound(key);
+        }
+        return greeting;
+    }
+
+    /**
+     * Sets a new message for the key.
+     *
+     * @param expectedVersion version the client has seen (from If-Match), null means unconditional update
+     * @throws GreetingVersionMismatchException if someone has changed the greeting after expectedVersion
+     */
+    public Greeting update(String key, String message, Long expectedVersion) {
+        Objects.requireNonNull(message, "message");
+        while (true) {
+            AtomicReference<Greeting> ref = greetings.get(key);
+            if (ref == null) {
+                if (expectedVersion != null) {
+                    throw new GreetingVersionMismatchException(key, expectedVersion, 0);
+                }
+                // first writer for the key wins the slot, the rest go through CAS below
+                Greeting created = new Greeting(message, deletedVersion.get() + 1);
+                ref = greetings.putIfAbsent(key, new AtomicReference<>(created));
+                if (ref == null) {
+                    return created;
+                }
+            }
+            Greeting updated = compareAndSet(key, ref, message, expectedVersion);
+            if (updated != null) {
+                return updated;
+            }
+            // deleted under us, the key is missing now
+        }
+    }
+
+    /**
+     * The default greeting goes back to the default message, any other greeting is removed.
+     *
+     * @return the greeting as it was just before the removal
+     */
+    public Greeting reset(String key, Long expectedVersion) {
+        AtomicReference<Greeting> ref = greetings.get(key);
+        if (ref == null) {
+            throw notFound(key);
+        }
+        if (DEFAULT_KEY.equals(key)) {
+            Greeting reset = compareAndSet(key, ref, DEFAULT_GREETING_MSG, expectedVersion);
+            if (reset == null) {
+                throw notFound(key);
+            }
+            return reset;
+        }
+        while (true) {
+            Greeting current = ref.get();
+            if (isTombstone(current)) {
+                unlink(key, ref, current);
+                throw notFound(key);
+            }
+            checkVersion(key, current, expectedVersion);
+            Greeting tombstone = new Greeting(null, current.version());
+            if (ref.compareAndSet(current, tombstone)) {
+                unlink(key, ref, tombstone);
+                return current;
+            }
+        }
+    }
+
+    /**
+     * @return the new greeting, or null if the greeting has been deleted
+     */
+    private Greeting compareAndSet(String key, AtomicReference<Greeting> ref, String message, Long expectedVersion) {
+        while (true) {
+            Greeting current = ref.get();
+            if (isTombstone(current)) {
+                unlink(key, ref, current);
+                return null;
+            }
+            checkVersion(key, current, expectedVersion);
+            Greeting next = new Greeting(message, current.version() + 1);
+            if (ref.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Finishes a delete, whoever sees the tombstone first: raises the version new keys start from, then
+     * removes the key, in this order so a greeting created after the removal can't reuse a version.
+     */
+    private void unlink(String key, AtomicReference<Greeting> ref, Greeting tombstone) {
+        deletedVersion.accumulateAndGet(tombstone.version(), Math::max);
+        greetings.remove(key, ref);
+    }
+
+    /**
+     * Messages are never null, a null message marks a deleted greeting.
+     */
+    private static boolean isTombstone(Greeting greeting) {
+        return greeting.message() == null;
+    }
+
+    private static GreetingNotFoundException notFound(String key) {
+        return new GreetingNotFoundException(String.format("Greeting \"%s\" doesn't exist", key));
+    }
+
+    private static void checkVersion(String key, Greeting current, Long expectedVersion) {
+        if (expectedVersion != null && current.version() != expectedVersion) {
+            throw new GreetingVersionMismatchException(key, expectedVersion, current.version());
+        }
+    }
+}
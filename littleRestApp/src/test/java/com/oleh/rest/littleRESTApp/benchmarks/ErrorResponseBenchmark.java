@@ -0,0 +1,69 @@
+package com.oleh.rest.littleRESTApp.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oleh.rest.littleRESTApp.Utils.exceptionHandle.ErrorJsonBuffer;
+import com.oleh.rest.littleRESTApp.Utils.exceptionHandle.ErrorResponseWriter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpStatus;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Error body rendering: the old path (new Date + Jackson reflection over an ErrorResponse-like object)
+ * against {@link ErrorResponseWriter} templates. Runs with the GC profiler,
+ * look at gc.alloc.rate.norm for bytes allocated per error response.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorResponseBenchmark {
+    private static final String MESSAGE = "Greeting \"evening\" doesn't exist";
+    private static final String URI = "/api/greet/evening";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ErrorResponseWriter writer = new ErrorResponseWriter();
+    private final ErrorJsonBuffer buffer = new ErrorJsonBuffer(512);
+
+    // the shape ErrorResponse used to have, with public fields so Jackson can see them
+    public static class LegacyErrorResponse {
+        public Date timestamp;
+        public int status;
+        public String error;
+        public String message;
+        public String details;
+
+        LegacyErrorResponse(HttpStatus status, String message, String details) {
+            this.timestamp = new Date();
+            this.status = status.value();
+            this.error = status.getReasonPhrase();
+            this.message = message;
+            this.details = details;
+        }
+    }
+
+    @Benchmark
+    public byte[] jackson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new LegacyErrorResponse(HttpStatus.NOT_FOUND, MESSAGE, "uri=" + URI));
+    }
+
+    @Benchmark
+    public ErrorJsonBuffer template() {
+        return writer.render(buffer, HttpStatus.NOT_FOUND, MESSAGE, URI, true, System.currentTimeMillis());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ErrorResponseBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
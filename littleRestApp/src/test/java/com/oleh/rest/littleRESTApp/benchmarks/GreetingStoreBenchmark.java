@@ -0,0 +1,66 @@
+package com.oleh.rest.littleRESTApp.benchmarks;
+
+import com.oleh.rest.littleRESTApp.models.Greeting;
+import com.oleh.rest.littleRESTApp.services.GreetingStore;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read throughput of {@link GreetingStore} with 1, 2, 4 ... all cores reading,
+ * plus a mixed group where one writer keeps updating the greeting while the rest read.
+ * Run it with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.oleh.rest.littleRESTApp.benchmarks.GreetingStoreBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GreetingStoreBenchmark {
+    private GreetingStore store;
+
+    @Setup
+    public void setUp() {
+        store = new GreetingStore();
+        store.update("other", "Hi there", null);
+    }
+
+    @Benchmark
+    public Greeting readDefault() {
+        return store.get(GreetingStore.DEFAULT_KEY);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(3)
+    public Greeting readWhileWriting() {
+        return store.get(GreetingStore.DEFAULT_KEY);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public Greeting write() {
+        return store.update(GreetingStore.DEFAULT_KEY, "Updated greeting", null);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            Options options = new OptionsBuilder()
+                    .include(GreetingStoreBenchmark.class.getSimpleName() + ".readDefault")
+                    .threads(threads)
+                    .build();
+            new Runner(options).run();
+        }
+        new Runner(new OptionsBuilder()
+                .include(GreetingStoreBenchmark.class.getSimpleName() + ".readWrite")
+                .build()).run();
+    }
+}
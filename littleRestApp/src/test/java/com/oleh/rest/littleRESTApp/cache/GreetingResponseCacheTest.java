@@ -0,0 +1,32 @@
+package com.oleh.rest.littleRESTApp.cache;
+
+import com.oleh.rest.littleRESTApp.services.GreetingStore;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GreetingResponseCacheTest {
+
+	@Test
+	void sameVersionReusesEncodedBody() {
+		GreetingResponseCache cache = new GreetingResponseCache(new GreetingStore());
+		CachedGreeting first = cache.get(GreetingStore.DEFAULT_KEY);
+		assertSame(first, cache.get(GreetingStore.DEFAULT_KEY));
+		assertArrayEquals(GreetingStore.DEFAULT_GREETING_MSG.getBytes(StandardCharsets.UTF_8), first.body());
+	}
+
+	@Test
+	void updateInvalidatesEntry() {
+		GreetingStore store = new GreetingStore();
+		GreetingResponseCache cache = new GreetingResponseCache(store);
+		CachedGreeting before = cache.get(GreetingStore.DEFAULT_KEY);
+
+		store.update(GreetingStore.DEFAULT_KEY, "Hi", null);
+		CachedGreeting after = cache.get(GreetingStore.DEFAULT_KEY);
+
+		assertNotEquals(before.eTag(), after.eTag());
+		assertArrayEquals("Hi".getBytes(StandardCharsets.UTF_8), after.body());
+	}
+}
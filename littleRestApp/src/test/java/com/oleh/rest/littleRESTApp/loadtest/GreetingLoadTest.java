@@ -0,0 +1,111 @@
+package com.oleh.rest.littleRESTApp.loadtest;
+
+import com.oleh.rest.littleRESTApp.LittleRestAppApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Starts the app on a random port, once with the default Tomcat pool and once with the "virtual" profile,
+ * and hits GET /api/greet from many concurrent clients. Prints p50/p99 latency, throughput
+ * and the max number of requests that were in flight at the same time.
+ * <p>
+ * Not a unit test, run it from the IDE or with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.oleh.rest.littleRESTApp.loadtest.GreetingLoadTest -Dexec.args="10000 20"
+ * <p>
+ * Arguments: number of clients (default 10000) and requests per client (default 20).
+ * The client side needs a big enough ulimit -n for the number of clients.
+ */
+public class GreetingLoadTest {
+    private static final String[] MODES = {"platform", "virtual"};
+
+    public static void main(String[] args) {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int requestsPerClient = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        if (Runtime.version().feature() < 21) {
+            System.out.println("Java " + Runtime.version().feature() + " has no virtual threads, both runs will use the platform pool");
+        }
+        for (String mode : MODES) {
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(LittleRestAppApplication.class)
+                    .profiles(mode)
+                    .properties("server.port=0", "logging.level.com.oleh.rest.littleRESTApp.controllers=ERROR")
+                    .run();
+            try {
+                String port = context.getEnvironment().getProperty("local.server.port");
+                Result result = run(URI.create("http://localhost:" + port + "/api/greet"), clients, requestsPerClient);
+                System.out.printf("%-8s clients=%d requests=%d errors=%d p50=%.2fms p99=%.2fms max=%.2fms rps=%.0f maxInFlight=%d%n",
+                        mode, clients, result.latenciesNanos.length, result.errors,
+                        result.percentile(50) / 1e6, result.percentile(99) / 1e6, result.percentile(100) / 1e6,
+                        result.latenciesNanos.length / (result.elapsedNanos / 1e9), result.maxInFlight);
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    static Result run(URI uri, int clients, int requestsPerClient) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+
+        long[] latencies = new long[clients * requestsPerClient];
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AtomicLong errors = new AtomicLong();
+
+        long start = System.nanoTime();
+        CompletableFuture<?>[] runs = new CompletableFuture<?>[clients];
+        for (int client = 0; client < clients; client++) {
+            runs[client] = sendNext(httpClient, request, latencies, client * requestsPerClient,
+                    (client + 1) * requestsPerClient, inFlight, maxInFlight, errors);
+        }
+        CompletableFuture.allOf(runs).join();
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        return new Result(latencies, elapsed, errors.get(), maxInFlight.get());
+    }
+
+    // every client sends its requests one after another, like a browser keeping one connection busy
+    private static CompletableFuture<Void> sendNext(HttpClient httpClient, HttpRequest request, long[] latencies,
+                                                    int index, int end, AtomicInteger inFlight,
+                                                    AtomicInteger maxInFlight, AtomicLong errors) {
+        if (index == end) {
+            return CompletableFuture.completedFuture(null);
+        }
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        long sent = System.nanoTime();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, ex) -> {
+                    latencies[index] = System.nanoTime() - sent;
+                    inFlight.decrementAndGet();
+                    if (ex != null || response.statusCode() != 200) {
+                        errors.incrementAndGet();
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> sendNext(httpClient, request, latencies, index + 1, end, inFlight, maxInFlight, errors));
+    }
+
+    record Result(long[] latenciesNanos, long elapsedNanos, long errors, int maxInFlight) {
+        double percentile(double p) {
+            if (latenciesNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p / 100 * latenciesNanos.length) - 1;
+            return latenciesNanos[Math.max(0, Math.min(index, latenciesNanos.length - 1))];
+        }
+    }
+}
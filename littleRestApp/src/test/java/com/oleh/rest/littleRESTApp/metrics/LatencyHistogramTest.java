@@ -0,0 +1,29 @@
+package com.oleh.rest.littleRESTApp.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+	@Test
+	void bucketsCoverValuesWithBoundedError() {
+		for (long value = 1; value > 0 && value < Long.MAX_VALUE / 3; value = value * 3 + 1) {
+			long upper = LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(value));
+			assertTrue(upper >= value, "upper bound below value " + value);
+			assertTrue(upper - value <= value / 16, "bucket too wide for " + value);
+		}
+	}
+
+	@Test
+	void quantiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long i = 1; i <= 1000; i++) {
+			histogram.record(i * 1_000);
+		}
+		assertEquals(1000, histogram.count());
+		assertEquals(1_000_000, histogram.maxNanos());
+		assertEquals(500_000, histogram.quantileNanos(0.5), 500_000 / 16.0);
+		assertEquals(990_000, histogram.quantileNanos(0.99), 990_000 / 16.0);
+	}
+}
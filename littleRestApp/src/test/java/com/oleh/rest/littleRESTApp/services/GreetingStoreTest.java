@@ -0,0 +1,130 @@
+package com.oleh.rest.littleRESTApp.services;
+
+import com.oleh.rest.littleRESTApp.Utils.exceptionHandle.GreetingNotFoundException;
+import com.oleh.rest.littleRESTApp.Utils.exceptionHandle.GreetingVersionMismatchException;
+import com.oleh.rest.littleRESTApp.models.Greeting;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GreetingStoreTest {
+
+	@Test
+	void defaultGreetingExists() {
+		Greeting greeting = new GreetingStore().get(GreetingStore.DEFAULT_KEY);
+		assertEquals(GreetingStore.DEFAULT_GREETING_MSG, greeting.message());
+		assertEquals("\"1\"", greeting.eTag());
+	}
+
+	@Test
+	void updateWithStaleVersionFails() {
+		GreetingStore store = new GreetingStore();
+		Greeting updated = store.update(GreetingStore.DEFAULT_KEY, "Hi", 1L);
+		assertEquals(2, updated.version());
+		assertThrows(GreetingVersionMismatchException.class, () -> store.update(GreetingStore.DEFAULT_KEY, "Hey", 1L));
+		assertEquals("Hi", store.get(GreetingStore.DEFAULT_KEY).message());
+	}
+
+	@Test
+	void keysAreIndependent() {
+		GreetingStore store = new GreetingStore();
+		store.update("morning", "Good morning", null);
+		assertEquals("Good morning", store.get("morning").message());
+		assertEquals(GreetingStore.DEFAULT_GREETING_MSG, store.get(GreetingStore.DEFAULT_KEY).message());
+
+		store.reset("morning", null);
+		assertThrows(GreetingNotFoundException.class, () -> store.get("morning"));
+	}
+
+	@Test
+	void resetKeepsDefaultKey() {
+		GreetingStore store = new GreetingStore();
+		store.update(GreetingStore.DEFAULT_KEY, "Hi", null);
+		Greeting reset = store.reset(GreetingStore.DEFAULT_KEY, 2L);
+		assertEquals(GreetingStore.DEFAULT_GREETING_MSG, reset.message());
+		assertEquals(3, reset.version());
+	}
+
+	@Test
+	void recreatedKeyDoesNotMatchEtagFromBeforeDelete() {
+		GreetingStore store = new GreetingStore();
+		Greeting old = store.update("morning", "Good morning", null);
+		store.reset("morning", old.version());
+		Greeting recreated = store.update("morning", "Morning again", null);
+		assertTrue(recreated.version() > old.version());
+		assertThrows(GreetingVersionMismatchException.class, () -> store.update("morning", "Hey", old.version()));
+		assertThrows(GreetingVersionMismatchException.class, () -> store.reset("morning", old.version()));
+		assertEquals("Morning again", store.get("morning").message());
+	}
+
+	@Test
+	void conditionalDeleteAndUpdateOfSameVersionHaveSingleWinner() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		try {
+			for (int round = 0; round < 2_000; round++) {
+				GreetingStore store = new GreetingStore();
+				long version = store.update("race", "Hi", null).version();
+				CountDownLatch start = new CountDownLatch(1);
+				Future<Boolean> deleted = pool.submit(() -> {
+					start.await();
+					try {
+						store.reset("race", version);
+						return true;
+					} catch (GreetingVersionMismatchException | GreetingNotFoundException e) {
+						return false;
+					}
+				});
+				Future<Boolean> updated = pool.submit(() -> {
+					start.await();
+					try {
+						store.update("race", "Hey", version);
+						return true;
+					} catch (GreetingVersionMismatchException e) {
+						return false;
+					}
+				});
+				start.countDown();
+				assertNotEquals(deleted.get(), updated.get(), "exactly one of delete and update must win");
+				if (updated.get()) {
+					assertEquals("Hey", store.get("race").message());
+				} else {
+					assertThrows(GreetingNotFoundException.class, () -> store.get("race"));
+				}
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void concurrentConditionalUpdatesHaveSingleWinnerPerVersion() throws InterruptedException {
+		GreetingStore store = new GreetingStore();
+		int writers = 8;
+		ExecutorService pool = Executors.newFixedThreadPool(writers);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger winners = new AtomicInteger();
+		for (int i = 0; i < writers; i++) {
+			String message = "Writer " + i;
+			pool.execute(() -> {
+				try {
+					start.await();
+					store.update(GreetingStore.DEFAULT_KEY, message, 1L);
+					winners.incrementAndGet();
+				} catch (GreetingVersionMismatchException | InterruptedException ignored) {
+				}
+			});
+		}
+		start.countDown();
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+		assertEquals(1, winners.get());
+		assertEquals(2, store.get(GreetingStore.DEFAULT_KEY).version());
+	}
+}
@@ -0,0 +1,103 @@
+package src;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.SplittableRandom;
+
+/**
+ * Game engine load benchmark. First a random shooter against the old string-keyed ships (one
+ * {@code HashMap<String, Cell>} per ship, ids like "2c") and against {@link BitBoard}, then
+ * {@link ProbabilityPlayer} games on all cores.
+ * Run: java src.BattleShipBenchmark [games]
+ */
+public class BattleShipBenchmark {
+    private static final int SHIPS = 3;
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+
+        for (int run = 0; run < 2; run++) {
+            randomShooter("string maps", games / 4, true);
+            randomShooter("bit-board", games / 4, false);
+        }
+
+        ProbabilityPlayer.simulate(games / 20, SHIPS, 1); // warm-up
+        long start = System.nanoTime();
+        long[] histogram = ProbabilityPlayer.simulate(games, SHIPS, 42);
+        long nanos = System.nanoTime() - start;
+        long shots = 0;
+        int worst = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            shots += i * histogram[i];
+            if (histogram[i] > 0) {
+                worst = i;
+            }
+        }
+        System.out.printf("probability AI: %,d games on %d threads in %,d ms = %,d games/min, %.2f shots/game, worst %d%n",
+                games, Runtime.getRuntime().availableProcessors(), nanos / 1_000_000,
+                (long) (games * 60e9 / nanos), shots / (double) games, worst);
+    }
+
+    /**
+     * Shoots every cell in random order until all ships are sunk.
+     */
+    private static void randomShooter(String engine, int games, boolean strings) {
+        SplittableRandom random = new SplittableRandom(7);
+        int[] order = new int[BitBoard.CELLS];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        long shots = 0;
+        long start = System.nanoTime();
+        for (int game = 0; game < games; game++) {
+            for (int i = order.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = order[i];
+                order[i] = order[j];
+                order[j] = swap;
+            }
+            BitBoard board = BitBoard.random(SHIPS, random);
+            if (strings) {
+                shots += playOnStringMaps(board, order);
+            } else {
+                int n = 0;
+                while (!board.allSunk()) {
+                    board.fire(order[n++]);
+                }
+                shots += n;
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        System.out.printf("%-12s %,d games, %,d shots in %,d ms, %d ns/shot%n",
+                engine, games, shots, nanos / 1_000_000, nanos / shots);
+    }
+
+    /**
+     * What GameField used to do: ships as maps of "row column" ids, every shot formats an id and asks each ship.
+     */
+    private static int playOnStringMaps(BitBoard layout, int[] order) {
+        ArrayList<HashMap<String, Boolean>> ships = new ArrayList<>();
+        for (int s = 0; s < SHIPS; s++) {
+            HashMap<String, Boolean> location = new HashMap<>();
+            for (long cells = layout.ship(s); cells != 0; cells &= cells - 1) {
+                int cell = Long.numberOfTrailingZeros(cells);
+                location.put(String.format("%d%s", cell / BitBoard.SIZE, (char) ('a' + cell % BitBoard.SIZE)), true);
+            }
+            ships.add(location);
+        }
+        int n = 0;
+        while (!ships.isEmpty()) {
+            int cell = order[n++];
+            String id = String.format("%d%s", cell / BitBoard.SIZE, (char) ('a' + cell % BitBoard.SIZE));
+            for (HashMap<String, Boolean> ship : ships) {
+                if (ship.remove(id) != null) {
+                    if (ship.isEmpty()) {
+                        ships.remove(ship);
+                    }
+                    break;
+                }
+            }
+        }
+        return n;
+    }
+}
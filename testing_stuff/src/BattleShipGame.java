@@ -3,43 +3,35 @@ package src;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.SplittableRandom;
 
 public class BattleShipGame {
     public static void main(String[] args) {
         GameField gameField = new GameField();
         gameField.setupGame();
 //        gameField.printField();
-        gameField.startGame();
+        if (args.length > 0 && args[0].equals("ai")) {
+            gameField.autoPlay();
+        } else {
+            gameField.startGame();
+        }
     }
 }
 
 class GameField {
-    public final ArrayList<Ship> ships = new ArrayList<>();
+    private final String[] names = {"Big", "Medium", "Small"};
     private final IOHelper ioHelper = new IOHelper();
-    private final String[] columns = {"a", "b", "c", "d", "e", "f", "g"};
+    private BitBoard board;
 
     public void setupGame() {
-        String[] names = {"Big", "Medium", "Small"};
-        for (String name : names) {
-            ships.add(new Ship(name));
-        }
-
         ioHelper.printGreeting();
-        int[][] borders = {{1, 2}, {2, 3}, {3, 4}};
-
-        for (int i = 0; i < ships.size(); i++) {
-            HashMap<String, Cell> location = getShipRandomLocation(borders[i][0], borders[i][1]);
-            ships.get(i).setLocation(location);
-            ships.get(i).setNameToLocation();
-        }
+        board = BitBoard.random(names.length, new SplittableRandom());
     }
 
     public void startGame() {
         int numberOfGuesses = 0;
 
-        while (!ships.isEmpty()) {
+        while (!board.allSunk()) {
             numberOfGuesses++;
             System.out.println("Please enter your guess to hit:");
             String userHit = ioHelper.getUserGuess();
@@ -48,123 +40,49 @@ class GameField {
         System.out.printf("You've killed the ship after %d guesses!", numberOfGuesses);
     }
 
-    private int getRandomWithBorders(int min, int max) {
-        return (int) (min - 0.5 + Math.random() * (max - min + 1));
-    }
-
-    public HashMap<String, Cell> getShipRandomLocation(int borderMin, int borderMax) {
-        HashMap<String, Cell> shipLocation = new HashMap<>();
-
-        int randomNum = getRandomWithBorders(borderMin, borderMax);
-        int next = randomNum + 1;
-        int next2 = randomNum + 2;
-
-        String id = String.format("%d%s", randomNum, columns[randomNum]);
-        String id2 = String.format("%d%s", next, columns[randomNum]);
-        String id3 = String.format("%d%s", next2, columns[randomNum]);
-
-
-        shipLocation.put(id, new Cell(id));
-        shipLocation.put(id2, new Cell(id2));
-        shipLocation.put(id3, new Cell(id3));
-        return shipLocation;
+    /**
+     * The computer plays the game with {@link ProbabilityPlayer}.
+     */
+    public void autoPlay() {
+        ProbabilityPlayer player = new ProbabilityPlayer(new SplittableRandom());
+        int numberOfGuesses = 0;
+        while (!board.allSunk()) {
+            numberOfGuesses++;
+            int cell = player.nextShot();
+            System.out.printf("Computer shoots at %s: ", BitBoard.name(cell));
+            BitBoard.Shot shot = fire(cell);
+            player.record(cell, shot, shot == BitBoard.Shot.KILL ? board.ship(board.lastShip()) : 0);
+        }
+        System.out.printf("The computer killed all ships after %d guesses!%n", numberOfGuesses);
     }
 
     public void checkHit(String hitLocation) {
-        for (Ship ship : ships) {
-            String hitResult = ship.checkHit(hitLocation);
-            if (hitResult.equals("hit")) {
-                System.out.printf("You've hit the: '%s' \n", ship.getName());
-                return;
-            }
-            if (hitResult.equals("kill")) {
-                System.out.printf("You've killed the: '%s' \n", ship.getName());
-                ships.remove(ship);
-                return;
-            }
+        int cell = BitBoard.cell(hitLocation);
+        if (cell < 0) {
+            System.out.println("That's not a cell on the board.");
+            return;
         }
-        System.out.println("You've missed.");
+        fire(cell);
     }
 
-    public void printField(){
-        for (Ship ship : ships) {
-            for (Cell cell : ship.getLocation().values()) {
-                System.out.println(cell);
-            }
+    private BitBoard.Shot fire(int cell) {
+        BitBoard.Shot shot = board.fire(cell);
+        switch (shot) {
+            case HIT -> System.out.printf("You've hit the: '%s' \n", names[board.lastShip()]);
+            case KILL -> System.out.printf("You've killed the: '%s' \n", names[board.lastShip()]);
+            default -> System.out.println("You've missed.");
         }
-    }
-}
-
-class Cell {
-    private String id;
-    private String shipName = null;
-    private boolean hit = false;
-
-    public Cell(String id) {
-        this.id = id;
-    }
-
-    public void setShipName(String name) {
-        this.shipName = name;
-    }
-
-    public void setHit(boolean hit) {
-        this.hit = hit;
-    }
-
-    public String getId() {
-        return id;
-    }
-
-    @Override
-    public String toString() {
-        return "Cell{" +
-                "id='" + id + '\'' +
-                ", shipName='" + shipName + '\'' +
-                ", hit=" + hit +
-                '}';
-    }
-}
-
-
-class Ship {
-    private String name;
-    private HashMap<String, Cell> location;
-
-    public Ship(String name) {
-        this.name = name;
-    }
-
-    public String getName() {
-        return name;
+        return shot;
     }
 
-    public void setLocation(HashMap<String, Cell> location) {
-        this.location = location;
-    }
-
-    public HashMap<String, Cell> getLocation() {
-        return location;
-    }
-
-    public String checkHit(String hitLocation) {
-        Cell hitCell = location.get(hitLocation);
-        String hitResult = "miss";
-
-        if (hitCell != null) {
-            location.remove(hitLocation);
-            if (location.isEmpty()) {
-                hitResult = "kill";
-            } else {
-                hitResult = "hit";
+    public void printField() {
+        for (int row = 0; row < BitBoard.SIZE; row++) {
+            StringBuilder line = new StringBuilder();
+            for (int column = 0; column < BitBoard.SIZE; column++) {
+                int ship = board.shipAt(row * BitBoard.SIZE + column);
+                line.append(ship < 0 ? '.' : names[ship].charAt(0));
             }
-        }
-        return hitResult;
-    }
-
-    public void setNameToLocation(){
-        for (Cell cell : location.values()){
-            cell.setShipName(name);
+            System.out.println(line);
         }
     }
 }
@@ -0,0 +1,155 @@
+package src;
+
+import java.util.SplittableRandom;
+
+/**
+ * The 7x7 battleship board as bit masks: cell {@code row * 7 + column} is bit {@code row * 7 + column} of a
+ * {@code long}, one mask per ship. Shooting is a couple of AND/OR operations instead of string lookups.
+ */
+class BitBoard {
+    static final int SIZE = 7;
+    static final int CELLS = SIZE * SIZE;
+    static final int SHIP_LENGTH = 3;
+    static final long FULL = (1L << CELLS) - 1;
+    /** Every way to put a ship on the board: horizontal ones first, then vertical ones. */
+    static final long[] PLACEMENTS = placements();
+
+    enum Shot { MISS, HIT, KILL }
+
+    private final long[] ships;
+    private final long[] afloat;
+    private long occupied;
+    private long shots;
+    private int shipsAfloat;
+    private int lastShip = -1;
+
+    BitBoard(long... ships) {
+        this.ships = ships.clone();
+        this.afloat = ships.clone();
+        for (long ship : ships) {
+            if ((occupied & ship) != 0) {
+                throw new IllegalArgumentException("Ships overlap");
+            }
+            occupied |= ship;
+        }
+        shipsAfloat = ships.length;
+    }
+
+    /**
+     * Ships of {@link #SHIP_LENGTH} at random places, none overlapping.
+     */
+    static BitBoard random(int shipCount, SplittableRandom random) {
+        long[] ships = new long[shipCount];
+        long occupied = 0;
+        for (int i = 0; i < shipCount; i++) {
+            long ship;
+            do {
+                ship = PLACEMENTS[random.nextInt(PLACEMENTS.length)];
+            } while ((ship & occupied) != 0);
+            ships[i] = ship;
+            occupied |= ship;
+        }
+        return new BitBoard(ships);
+    }
+
+    static long bit(int cell) {
+        return 1L << cell;
+    }
+
+    /**
+     * Cell of a guess like "2c" (row, column) or "c2" (column, row), or -1 if it's not on the board.
+     */
+    static int cell(String guess) {
+        if (guess == null || guess.length() != 2) {
+            return -1;
+        }
+        char first = Character.toLowerCase(guess.charAt(0));
+        char second = Character.toLowerCase(guess.charAt(1));
+        int row = Character.isDigit(first) ? first - '0' : second - '0';
+        int column = Character.isDigit(first) ? second - 'a' : first - 'a';
+        return row >= 0 && row < SIZE && column >= 0 && column < SIZE ? row * SIZE + column : -1;
+    }
+
+    static String name(int cell) {
+        return "" + cell / SIZE + (char) ('a' + cell % SIZE);
+    }
+
+    Shot fire(int cell) {
+        long bit = bit(cell);
+        shots |= bit;
+        if ((occupied & bit) == 0) {
+            return Shot.MISS;
+        }
+        for (int i = 0; i < afloat.length; i++) {
+            if ((afloat[i] & bit) != 0) {
+                afloat[i] &= ~bit;
+                lastShip = i;
+                if (afloat[i] == 0) {
+                    shipsAfloat--;
+                    return Shot.KILL;
+                }
+                return Shot.HIT;
+            }
+        }
+        // a cell of a ship that was hit before
+        lastShip = -1;
+        return Shot.MISS;
+    }
+
+    /**
+     * Index of the ship hit by the last {@link #fire(int)}.
+     */
+    int lastShip() {
+        return lastShip;
+    }
+
+    long ship(int index) {
+        return ships[index];
+    }
+
+    int shipCount() {
+        return ships.length;
+    }
+
+    boolean allSunk() {
+        return shipsAfloat == 0;
+    }
+
+    boolean shotAt(int cell) {
+        return (shots & bit(cell)) != 0;
+    }
+
+    /**
+     * Ship index at the cell, or -1.
+     */
+    int shipAt(int cell) {
+        for (int i = 0; i < ships.length; i++) {
+            if ((ships[i] & bit(cell)) != 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long[] placements() {
+        int perLine = SIZE - SHIP_LENGTH + 1;
+        long[] placements = new long[2 * SIZE * perLine];
+        long horizontal = (1L << SHIP_LENGTH) - 1;
+        long vertical = 0;
+        for (int i = 0; i < SHIP_LENGTH; i++) {
+            vertical |= bit(i * SIZE);
+        }
+        int n = 0;
+        for (int row = 0; row < SIZE; row++) {
+            for (int column = 0; column < perLine; column++) {
+                placements[n++] = horizontal << (row * SIZE + column);
+            }
+        }
+        for (int row = 0; row < perLine; row++) {
+            for (int column = 0; column < SIZE; column++) {
+                placements[n++] = vertical << (row * SIZE + column);
+            }
+        }
+        return placements;
+    }
+}
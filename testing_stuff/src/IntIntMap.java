@@ -0,0 +1,132 @@
+package src;
+
+/**
+ * {@code int} to {@code int} hash map with open addressing and linear probing, so nothing is boxed. Keys and
+ * values sit side by side in one array, so a lookup touches one cache line. Key 0 marks an empty slot, the value
+ * of key 0 itself is kept in a field. Missing keys read as 0; there is no remove.
+ */
+final class IntIntMap {
+    /** Slots, two ints each. */
+    private static final int MAX_CAPACITY = 1 << 29;
+
+    interface EntryConsumer {
+        void accept(int key, int value);
+    }
+
+    private int[] table;
+    private int mask;
+    private int shift;
+    private int size;
+    private int resizeAt;
+    private boolean hasZeroKey;
+    private int zeroKeyValue;
+
+    IntIntMap(int expectedSize) {
+        allocate(capacityFor(Math.max(expectedSize, 8)));
+    }
+
+    int get(int key) {
+        if (key == 0) {
+            return zeroKeyValue;
+        }
+        int slot = slot(key);
+        while (true) {
+            int found = table[slot << 1];
+            if (found == key) {
+                return table[(slot << 1) + 1];
+            }
+            if (found == 0) {
+                return 0;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Adds {@code delta} to the value of the key, inserting it with value {@code delta} if missing.
+     *
+     * @return the new value
+     */
+    int addTo(int key, int delta) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            return zeroKeyValue += delta;
+        }
+        int slot = slot(key);
+        while (true) {
+            int found = table[slot << 1];
+            if (found == key) {
+                return table[(slot << 1) + 1] += delta;
+            }
+            if (found == 0) {
+                table[slot << 1] = key;
+                table[(slot << 1) + 1] = delta;
+                if (++size > resizeAt) {
+                    grow();
+                }
+                return delta;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Calls the consumer for every key, in table order.
+     */
+    void forEach(EntryConsumer consumer) {
+        if (hasZeroKey) {
+            consumer.accept(0, zeroKeyValue);
+        }
+        for (int i = 0; i < table.length; i += 2) {
+            if (table[i] != 0) {
+                consumer.accept(table[i], table[i + 1]);
+            }
+        }
+    }
+
+    /**
+     * Fibonacci hashing: the top bits of the key times 2^32 / golden ratio.
+     */
+    private int slot(int key) {
+        return (key * 0x9E3779B9) >>> shift;
+    }
+
+    private void grow() {
+        if (mask + 1 == MAX_CAPACITY) {
+            throw new IllegalStateException("IntIntMap is full: " + size + " keys");
+        }
+        int[] old = table;
+        allocate((mask + 1) << 1);
+        for (int i = 0; i < old.length; i += 2) {
+            int key = old[i];
+            if (key != 0) {
+                int slot = slot(key);
+                while (table[slot << 1] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot << 1] = key;
+                table[(slot << 1) + 1] = old[i + 1];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        table = new int[capacity << 1];
+        mask = capacity - 1;
+        shift = Integer.numberOfLeadingZeros(mask);
+        // at most 3/4 full, so probing always ends at an empty slot
+        resizeAt = capacity / 4 * 3;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long capacity = Long.highestOneBit(expectedSize * 4L / 3 + 1) << 1;
+        return (int) Math.min(capacity, MAX_CAPACITY);
+    }
+}
@@ -0,0 +1,144 @@
+package src;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntToLongFunction;
+
+/**
+ * {@link Tasks1#maxOperations} in O(n) without touching the input: the most disjoint pairs of elements that sum to
+ * {@code k}, from a count of every value in an {@link IntIntMap}: values x and k - x make as many pairs as the
+ * smaller of their counts. Sums are exact, so unlike the {@code int} sum in the two-pointer version, a pair can't
+ * be found through overflow.
+ */
+public final class MaxOperations {
+    /** Values per partition in {@link #countParallel}, so a partition's map stays in the L2 cache. */
+    private static final int PARTITION_TARGET = 1 << 16;
+    private static final int MAX_PARTITIONS = 1 << 12;
+    private static final int MIN_CHUNK = 1 << 16;
+
+    private MaxOperations() {
+    }
+
+    public static int count(int[] nums, int k) {
+        return (int) pairUp(nums, 0, nums.length, k);
+    }
+
+    /**
+     * Partitioned hash aggregation on the pool, for arrays too big for one map to stay in cache:
+     * <ol>
+     * <li>every chunk of the input counts how many of its values go to each partition, by the hash of their pair
+     * {@code min(x, k - x)}, so both halves of a pair land in the same partition;</li>
+     * <li>every chunk copies its values to their partition's slice of one scratch array;</li>
+     * <li>every partition is counted and paired in a small map of its own.</li>
+     * </ol>
+     * The input is only read. Besides it, this needs the scratch array and a few small maps at a time, less than
+     * the one big map of {@link #count} with many distinct values.
+     */
+    public static int countParallel(int[] nums, int k, ForkJoinPool pool) {
+        int partitions = (int) Math.min(MAX_PARTITIONS, Long.highestOneBit(nums.length / PARTITION_TARGET + 1));
+        int chunks = (int) Math.max(1, Math.min(4L * pool.getParallelism(), nums.length / MIN_CHUNK));
+        int[][] starts = new int[chunks][partitions];
+
+        pool.invoke(new Range(0, chunks, chunk -> {
+            int[] histogram = starts[chunk];
+            for (int i = chunkStart(nums, chunk, chunks), end = chunkStart(nums, chunk + 1, chunks); i < end; i++) {
+                histogram[partitionOf(nums[i], k, partitions)]++;
+            }
+            return 0;
+        }));
+        // partition p of chunk c goes after all of partition p - 1 and partition p of the chunks before c
+        int[] bounds = new int[partitions + 1];
+        int offset = 0;
+        for (int p = 0; p < partitions; p++) {
+            bounds[p] = offset;
+            for (int c = 0; c < chunks; c++) {
+                int count = starts[c][p];
+                starts[c][p] = offset;
+                offset += count;
+            }
+        }
+        bounds[partitions] = offset;
+
+        int[] scratch = new int[nums.length];
+        pool.invoke(new Range(0, chunks, chunk -> {
+            int[] next = starts[chunk];
+            for (int i = chunkStart(nums, chunk, chunks), end = chunkStart(nums, chunk + 1, chunks); i < end; i++) {
+                scratch[next[partitionOf(nums[i], k, partitions)]++] = nums[i];
+            }
+            return 0;
+        }));
+        return pool.invoke(new Range(0, partitions,
+                partition -> pairUp(scratch, bounds[partition], bounds[partition + 1], k))).intValue();
+    }
+
+    public static int countParallel(int[] nums, int k) {
+        return countParallel(nums, k, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Counts the values in [from, to), then pairs each value {@code x < k - x} with its partner: {@code min} of both
+     * counts, or half the count when {@code x == k - x}. One random map access per element and one per distinct
+     * value, instead of two per element for pairing while counting.
+     */
+    private static long pairUp(int[] nums, int from, int to, int k) {
+        IntIntMap counts = new IntIntMap(Math.min(to - from, 1 << 20));
+        for (int i = from; i < to; i++) {
+            counts.addTo(nums[i], 1);
+        }
+        long[] pairs = {0};
+        counts.forEach((x, count) -> {
+            long partner = (long) k - x;
+            if (partner == x) {
+                pairs[0] += count / 2;
+            } else if (x < partner && partner <= Integer.MAX_VALUE) {
+                pairs[0] += Math.min(count, counts.get((int) partner));
+            }
+        });
+        return pairs[0];
+    }
+
+    private static int chunkStart(int[] nums, int chunk, int chunks) {
+        return (int) ((long) nums.length * chunk / chunks);
+    }
+
+    /**
+     * Murmur3's 64-bit finalizer on the smaller half of the pair, not the map's multiplicative hash: with that one,
+     * the values of a partition would all share the top hash bits and pile up in a fraction of their map's slots.
+     */
+    private static int partitionOf(int x, int k, int partitions) {
+        long hash = Math.min(x, (long) k - x);
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return (int) (((hash >>> 32) * partitions) >>> 32);
+    }
+
+    /**
+     * Runs the body for every index in [from, to) on the pool, splitting in halves, and adds up what it returns.
+     */
+    private static class Range extends RecursiveTask<Long> {
+        private final int from;
+        private final int to;
+        private final IntToLongFunction body;
+
+        Range(int from, int to, IntToLongFunction body) {
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from == 1) {
+                return body.applyAsLong(from);
+            }
+            int middle = (from + to) >>> 1;
+            Range left = new Range(from, middle, body);
+            left.fork();
+            long right = new Range(middle, to, body).compute();
+            return right + left.join();
+        }
+    }
+}
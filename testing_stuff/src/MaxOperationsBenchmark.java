@@ -0,0 +1,57 @@
+package src;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntSupplier;
+
+/**
+ * Compares the sort-and-two-pointer {@link Tasks1#maxOperations} with {@link MaxOperations#count} and
+ * {@link MaxOperations#countParallel} on random arrays, checks that all three agree and that the input is
+ * unchanged. Values are drawn from [0, size / 2), so about half of them are distinct, and k is size / 2.
+ * Run: java -Xmx4g src.MaxOperationsBenchmark [size,size,...] [parallelism]   sizes like 1M, 100M
+ */
+public class MaxOperationsBenchmark {
+
+    public static void main(String[] args) {
+        String[] sizes = (args.length > 0 ? args[0] : "1M,10M,100M").split(",");
+        int parallelism = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+        for (String sizeText : sizes) {
+            int size = (int) parseSize(sizeText);
+            int k = size / 2;
+            int[] nums = new SplittableRandom(size).ints(size, 0, Math.max(1, k)).toArray();
+            int[] before = nums.clone();
+
+            System.out.printf("%n%s, parallelism %d%n", sizeText, parallelism);
+            int sorted = time("sort + two pointers", () -> Tasks1.maxOperations(nums, k));
+            int hashed = time("IntIntMap", () -> MaxOperations.count(nums, k));
+            int parallel = time("partitioned fork/join", () -> MaxOperations.countParallel(nums, k, pool));
+            System.out.printf("  pairs %,d, same: %b, input unchanged: %b%n", sorted,
+                    sorted == hashed && sorted == parallel, Arrays.equals(nums, before));
+        }
+        pool.shutdown();
+    }
+
+    /**
+     * Best of three runs after one warm-up run.
+     */
+    private static int time(String name, IntSupplier task) {
+        int result = task.getAsInt();
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 3; run++) {
+            long start = System.nanoTime();
+            result = task.getAsInt();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("  %-22s %,10.1f ms%n", name, best / 1e6);
+        return result;
+    }
+
+    private static long parseSize(String size) {
+        char unit = Character.toUpperCase(size.charAt(size.length() - 1));
+        long factor = unit == 'K' ? 1 << 10 : unit == 'M' ? 1 << 20 : 1;
+        return Long.parseLong(factor == 1 ? size : size.substring(0, size.length() - 1)) * factor;
+    }
+}
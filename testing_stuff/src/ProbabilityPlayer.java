@@ -0,0 +1,151 @@
+package src;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Computer player that shoots where a ship is most likely to be. For every cell it counts the ship placements
+ * that still fit (not over a miss or a sunk ship) and cover the cell; while there are hits of ships still
+ * afloat, only placements through those hits count, weighted by how many hits they explain.
+ * {@link #simulate(int, int, long)} plays many games in parallel with fork/join.
+ */
+class ProbabilityPlayer {
+    private final int[] density = new int[BitBoard.CELLS];
+    private final SplittableRandom random;
+    private long shots;
+    private long misses;
+    /** Hit cells of ships that are still afloat. */
+    private long hits;
+    private long sunk;
+
+    ProbabilityPlayer(SplittableRandom random) {
+        this.random = random;
+    }
+
+    int nextShot() {
+        long blocked = misses | sunk;
+        Arrays.fill(density, 0);
+        boolean targeting = hits != 0 && countPlacements(blocked, true);
+        if (!targeting) {
+            countPlacements(blocked, false);
+        }
+        int best = -1;
+        int bestDensity = -1;
+        int ties = 0;
+        for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+            if ((shots & BitBoard.bit(cell)) != 0) {
+                continue;
+            }
+            if (density[cell] > bestDensity) {
+                best = cell;
+                bestDensity = density[cell];
+                ties = 1;
+            } else if (density[cell] == bestDensity && random.nextInt(++ties) == 0) {
+                // reservoir sampling, so equal cells are picked evenly
+                best = cell;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param sunkShip mask of the ship if the shot sank it, 0 otherwise
+     */
+    void record(int cell, BitBoard.Shot shot, long sunkShip) {
+        long bit = BitBoard.bit(cell);
+        shots |= bit;
+        switch (shot) {
+            case MISS -> misses |= bit;
+            case HIT -> hits |= bit;
+            case KILL -> {
+                sunk |= sunkShip;
+                hits &= ~sunkShip;
+            }
+        }
+    }
+
+    /**
+     * Plays one game on the board and returns the number of shots it took.
+     */
+    int play(BitBoard board) {
+        int count = 0;
+        while (!board.allSunk()) {
+            int cell = nextShot();
+            BitBoard.Shot shot = board.fire(cell);
+            record(cell, shot, shot == BitBoard.Shot.KILL ? board.ship(board.lastShip()) : 0);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Adds density for every placement that fits; with {@code throughHits} only for placements covering hits.
+     *
+     * @return whether any placement counted
+     */
+    private boolean countPlacements(long blocked, boolean throughHits) {
+        boolean any = false;
+        for (long placement : BitBoard.PLACEMENTS) {
+            if ((placement & blocked) != 0) {
+                continue;
+            }
+            int weight = 1;
+            if (throughHits) {
+                int covered = Long.bitCount(placement & hits);
+                if (covered == 0) {
+                    continue;
+                }
+                weight = 1 << (4 * covered);
+            }
+            any = true;
+            for (long cells = placement & ~shots; cells != 0; cells &= cells - 1) {
+                density[Long.numberOfTrailingZeros(cells)] += weight;
+            }
+        }
+        return any;
+    }
+
+    /**
+     * Plays {@code games} games on random boards in parallel.
+     *
+     * @return histogram: element i is the number of games won with i shots
+     */
+    static long[] simulate(int games, int ships, long seed) {
+        return ForkJoinPool.commonPool().invoke(new Games(games, ships, new SplittableRandom(seed)));
+    }
+
+    private static class Games extends RecursiveTask<long[]> {
+        private static final int THRESHOLD = 5_000;
+        private final int games;
+        private final int ships;
+        private final SplittableRandom random;
+
+        Games(int games, int ships, SplittableRandom random) {
+            this.games = games;
+            this.ships = ships;
+            this.random = random;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (games <= THRESHOLD) {
+                long[] histogram = new long[BitBoard.CELLS + 1];
+                for (int i = 0; i < games; i++) {
+                    histogram[new ProbabilityPlayer(random).play(BitBoard.random(ships, random))]++;
+                }
+                return histogram;
+            }
+            Games left = new Games(games / 2, ships, random.split());
+            Games right = new Games(games - games / 2, ships, random.split());
+            left.fork();
+            long[] histogram = right.compute();
+            long[] other = left.join();
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] += other[i];
+            }
+            return histogram;
+        }
+    }
+}
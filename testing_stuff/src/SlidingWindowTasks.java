@@ -1,30 +1,52 @@
 package src;
 
+import src.window.Window;
+import src.window.WindowEngine;
+
+import java.util.stream.IntStream;
+
 public class SlidingWindowTasks {
 
     public static void main(String[] args) {
         System.out.println("maxOperations: " + maximumAverageSubArrayV1(new int[]{1,12,-5,-6,50,3}, 4));
         System.out.println("maxOperations: " + maximumAverageSubArrayV1(new int[]{5}, 1));
+        System.out.println("maxAverage streamed: " + maximumAverageSubArray(IntStream.of(-7, -3, -9, -4), 2));
     }
 
     public static double maximumAverageSubArrayV1(int[] nums, int k) {
         if(nums.length == 0 || k == 0) {
             return 0;
         }
+        if (k > nums.length) {
+            throw new IllegalArgumentException("Window " + k + " is longer than the array: " + nums.length);
+        }
 
-        double currentAverage = 0;
-        double maxAverage = 0;
-
+        // long, so nums[i] - nums[i - k] can't overflow
+        long currentSum = 0;
         for (int i = 0; i < k; i++) {
-            currentAverage += nums[i];
+            currentSum += nums[i];
         }
-        maxAverage = currentAverage;
+        long maxSum = currentSum;
 
         for (int i = k; i < nums.length; i++) {
-            currentAverage += nums[i] - nums[i - k];
-            maxAverage = Math.max(maxAverage, currentAverage);
+            currentSum += (long) nums[i] - nums[i - k];
+            maxSum = Math.max(maxSum, currentSum);
         }
 
-        return maxAverage / k;
+        return maxSum / (double) k;
+    }
+
+    /**
+     * Same as {@link #maximumAverageSubArrayV1} on a stream of any length, keeping only the last k values.
+     */
+    public static double maximumAverageSubArray(IntStream nums, int k) {
+        double[] maxAverage = {Double.NEGATIVE_INFINITY};
+        WindowEngine engine = new WindowEngine()
+                .add(Window.sliding(k), window -> maxAverage[0] = Math.max(maxAverage[0], window.average()))
+                .feed(nums);
+        if (engine.count() < k) {
+            throw new IllegalArgumentException("Window " + k + " is longer than the stream: " + engine.count());
+        }
+        return maxAverage[0];
     }
 }
@@ -296,6 +296,8 @@ public class Tasks1 {
     }
 
     public static int maxOperations(int[] nums, int k) {
+        // sort a copy, the caller's array stays as it was; MaxOperations does it in O(n)
+        nums = nums.clone();
         Arrays.sort(nums);
 
         int left = 0;
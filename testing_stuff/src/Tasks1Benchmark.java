@@ -0,0 +1,116 @@
+package src;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+/**
+ * Compares the {@link Tasks1} implementations with {@link Tasks1Kernels} from 1 KB to 100 MB of input
+ * (chars for the string tasks, ints for kidsWithCandies) and checks that both give the same result.
+ * The old versions box every element, so they are only run up to 16 MB; above that they need several GB of heap.
+ * Run: java -Xmx4g src.Tasks1Benchmark [size,size,...]   sizes like 1K, 64K, 1M, 100M
+ */
+public class Tasks1Benchmark {
+    private static final long OLD_MAX_SIZE = 16 << 20;
+    private static final long MIN_NANOS = 300_000_000L;
+
+    public static void main(String[] args) {
+        String[] sizes = (args.length > 0 ? args[0] : "1K,64K,1M,16M,100M").split(",");
+        PrintStream console = System.out;
+        // Tasks1.reverseWords prints its words
+        PrintStream silent = new PrintStream(OutputStream.nullOutputStream());
+
+        for (String sizeText : sizes) {
+            int size = (int) parseSize(sizeText);
+            boolean runOld = size <= OLD_MAX_SIZE;
+            SplittableRandom random = new SplittableRandom(size);
+            String words = text(random, size, true);
+            String half = text(random, size / 2, false);
+            int[] candies = random.ints(Math.max(1, size / 4), 0, 1_000_000).toArray();
+
+            console.printf("%n%s%n", sizeText);
+            System.setOut(silent);
+            try {
+                compare(console, "mergeAlternately", runOld,
+                        () -> Tasks1.mergeAlternately(half, half),
+                        () -> Tasks1Kernels.mergeAlternately(half, half), null);
+                boolean[] kids = new boolean[candies.length];
+                compare(console, "kidsWithCandies", runOld,
+                        () -> Tasks1.kidsWithCandies1(candies, 3),
+                        () -> {
+                            Tasks1Kernels.kidsWithCandies(candies, 3, kids);
+                            return kids;
+                        },
+                        () -> toList(Tasks1Kernels.kidsWithCandies(candies, 3)));
+                compare(console, "reverseVowels", runOld,
+                        () -> Tasks1.reverseVowels(words),
+                        () -> Tasks1Kernels.reverseVowels(words), null);
+                compare(console, "reverseWords", runOld,
+                        () -> Tasks1.reverseWords(words),
+                        () -> Tasks1Kernels.reverseWords(words), null);
+            } finally {
+                System.setOut(console);
+            }
+        }
+    }
+
+    /**
+     * @param kernelAsOld kernel result in the old result type for the check, null if {@code kernel} already is
+     */
+    private static void compare(PrintStream out, String task, boolean runOld,
+                                Supplier<Object> old, Supplier<Object> kernel, Supplier<Object> kernelAsOld) {
+        double kernelNanos = time(kernel);
+        if (!runOld) {
+            out.printf("  %-18s old: skipped          kernel: %10.3f ms%n", task, kernelNanos / 1e6);
+            return;
+        }
+        double oldNanos = time(old);
+        boolean same = old.get().equals((kernelAsOld != null ? kernelAsOld : kernel).get());
+        out.printf("  %-18s old: %10.3f ms  kernel: %10.3f ms  %6.1fx%s%n", task, oldNanos / 1e6, kernelNanos / 1e6,
+                oldNanos / kernelNanos, same ? "" : "  RESULTS DIFFER");
+    }
+
+    /**
+     * Average time of one call, after a warm-up, repeating until {@link #MIN_NANOS} have passed.
+     */
+    private static double time(Supplier<Object> task) {
+        Object sink = task.get();
+        long start = System.nanoTime();
+        long runs = 0;
+        long elapsed;
+        do {
+            sink = task.get();
+            runs++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < MIN_NANOS);
+        if (sink == null) {
+            throw new AssertionError();
+        }
+        return elapsed / (double) runs;
+    }
+
+    private static String text(SplittableRandom random, int length, boolean withSpaces) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = withSpaces && random.nextInt(6) == 0 ? ' ' : (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    private static List<Boolean> toList(boolean[] values) {
+        Boolean[] boxed = new Boolean[values.length];
+        for (int i = 0; i < values.length; i++) {
+            boxed[i] = values[i];
+        }
+        return Arrays.asList(boxed);
+    }
+
+    private static long parseSize(String size) {
+        char unit = Character.toUpperCase(size.charAt(size.length() - 1));
+        long factor = unit == 'K' ? 1 << 10 : unit == 'M' ? 1 << 20 : 1;
+        return Long.parseLong(factor == 1 ? size : size.substring(0, size.length() - 1)) * factor;
+    }
+}
@@ -0,0 +1,136 @@
+package src;
+
+/**
+ * Allocation-free versions of the {@link Tasks1} string and array tasks. They work in place on
+ * {@code char[]}/{@code int[]} (or into a caller's output array), never box, and keep the hot loops plain
+ * indexed loops without branches on the data where possible, so the JIT can unroll and vectorize them.
+ * The {@code String} overloads only add the one copy in and out that a {@code String} needs.
+ */
+public final class Tasks1Kernels {
+    /** ASCII vowel lookup, both cases. */
+    private static final boolean[] VOWEL = new boolean[128];
+
+    static {
+        for (char c : "aeiouAEIOU".toCharArray()) {
+            VOWEL[c] = true;
+        }
+    }
+
+    private Tasks1Kernels() {
+    }
+
+    public static String mergeAlternately(String word1, String word2) {
+        char[] out = new char[word1.length() + word2.length()];
+        mergeAlternately(word1.toCharArray(), word2.toCharArray(), out);
+        return new String(out);
+    }
+
+    /**
+     * Writes a[0], b[0], a[1], b[1], ... and then the rest of the longer word into {@code out}.
+     *
+     * @return number of chars written, {@code a.length + b.length}
+     */
+    public static int mergeAlternately(char[] a, char[] b, char[] out) {
+        int common = Math.min(a.length, b.length);
+        for (int i = 0; i < common; i++) {
+            out[2 * i] = a[i];
+            out[2 * i + 1] = b[i];
+        }
+        char[] longer = a.length > common ? a : b;
+        System.arraycopy(longer, common, out, 2 * common, longer.length - common);
+        return a.length + b.length;
+    }
+
+    public static boolean[] kidsWithCandies(int[] candies, int extraCandies) {
+        boolean[] result = new boolean[candies.length];
+        kidsWithCandies(candies, extraCandies, result);
+        return result;
+    }
+
+    /**
+     * One max reduction and one compare pass instead of a sort.
+     */
+    public static void kidsWithCandies(int[] candies, int extraCandies, boolean[] out) {
+        int most = Integer.MIN_VALUE;
+        for (int candy : candies) {
+            most = Math.max(most, candy);
+        }
+        int threshold = most - extraCandies;
+        for (int i = 0; i < candies.length; i++) {
+            out[i] = candies[i] >= threshold;
+        }
+    }
+
+    public static String reverseVowels(String s) {
+        char[] chars = s.toCharArray();
+        reverseVowels(chars);
+        return new String(chars);
+    }
+
+    /**
+     * Two pointers moving towards each other, swapping vowels.
+     */
+    public static void reverseVowels(char[] chars) {
+        int left = 0;
+        int right = chars.length - 1;
+        while (left < right) {
+            while (left < right && !isVowel(chars[left])) {
+                left++;
+            }
+            while (left < right && !isVowel(chars[right])) {
+                right--;
+            }
+            char swap = chars[left];
+            chars[left++] = chars[right];
+            chars[right--] = swap;
+        }
+    }
+
+    public static String reverseWords(String s) {
+        char[] chars = s.toCharArray();
+        return new String(chars, 0, reverseWords(chars));
+    }
+
+    /**
+     * Reverses the order of the space-separated words in place: squeezes the spaces to single ones between
+     * words, reverses the whole text and then every word.
+     *
+     * @return length of the result, which starts at index 0
+     */
+    public static int reverseWords(char[] chars) {
+        int length = 0;
+        boolean space = false;
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] == ' ') {
+                space = length > 0;
+            } else {
+                if (space) {
+                    chars[length++] = ' ';
+                    space = false;
+                }
+                chars[length++] = chars[i];
+            }
+        }
+        reverse(chars, 0, length);
+        int wordStart = 0;
+        for (int i = 0; i <= length; i++) {
+            if (i == length || chars[i] == ' ') {
+                reverse(chars, wordStart, i);
+                wordStart = i + 1;
+            }
+        }
+        return length;
+    }
+
+    private static void reverse(char[] chars, int from, int to) {
+        for (int i = from, j = to - 1; i < j; i++, j--) {
+            char swap = chars[i];
+            chars[i] = chars[j];
+            chars[j] = swap;
+        }
+    }
+
+    private static boolean isVowel(char c) {
+        return c < 128 && VOWEL[c];
+    }
+}
@@ -0,0 +1,93 @@
+package src;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Picks {@code Tasks1Vector} when it was built, the JVM was started with
+ * {@code --add-modules jdk.incubator.vector} and the hardware has 256-bit vectors ({@code Tasks1Vector.supported()}),
+ * and the scalar {@link Tasks1} code otherwise, for the tasks where the vector version is faster. {@code Tasks1Vector} is in the separate {@code vector} source root, so the sources here
+ * compile with plain javac; it is looked up by name and called through constant method handles, which the JIT
+ * inlines like a direct call. {@code -Dtasks1.vector=false} forces the scalar code.
+ */
+public final class Tasks1Simd {
+    private static final MethodHandle MAX_AREA;
+    private static final MethodHandle MOVE_ZEROES;
+    static final boolean VECTOR;
+
+    static {
+        MethodHandle maxArea = null;
+        MethodHandle moveZeroes = null;
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+                && Boolean.parseBoolean(System.getProperty("tasks1.vector", "true"))) {
+            try {
+                Class<?> vector = Class.forName("src.Tasks1Vector");
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                MethodHandle supported = lookup.findStatic(vector, "supported", MethodType.methodType(boolean.class));
+                // emulated narrower vectors are far slower than the scalar loops
+                if ((boolean) supported.invokeExact()) {
+                    maxArea = lookup.findStatic(vector, "maxArea", MethodType.methodType(int.class, int[].class));
+                    moveZeroes = lookup.findStatic(vector, "moveZeroes", MethodType.methodType(int[].class, int[].class));
+                }
+            } catch (Throwable e) {
+                // the vector sources weren't built or the hardware can't run them fast, stay scalar
+                maxArea = null;
+                moveZeroes = null;
+            }
+        }
+        MAX_AREA = maxArea;
+        MOVE_ZEROES = moveZeroes;
+        VECTOR = maxArea != null;
+    }
+
+    private Tasks1Simd() {
+    }
+
+    /**
+     * Always the scalar loop: the vector scan loses to it at every size, see {@code Tasks1Vector#productExceptSelf}.
+     */
+    public static int[] productExceptSelf(int[] nums) {
+        return Tasks1.productExceptSelf(nums);
+    }
+
+    public static int maxArea(int[] height) {
+        if (!VECTOR) {
+            return Tasks1.maxArea(height);
+        }
+        try {
+            return (int) MAX_AREA.invokeExact(height);
+        } catch (Throwable e) {
+            throw unchecked(e);
+        }
+    }
+
+    public static int[] moveZeroes(int[] nums) {
+        if (!VECTOR) {
+            return Tasks1.moveZeroes(nums);
+        }
+        try {
+            return (int[]) MOVE_ZEROES.invokeExact(nums);
+        } catch (Throwable e) {
+            throw unchecked(e);
+        }
+    }
+
+    /**
+     * Same result as {@link #moveZeroes}: the non-zero elements in order, then the zeros.
+     */
+    public static int[] moveZerosToEnd(int[] arr) {
+        return VECTOR ? moveZeroes(arr) : Tasks1.moveZerosToEnd(arr);
+    }
+
+    // the kernels throw nothing checked, anything else is a bug worth seeing as it is
+    private static RuntimeException unchecked(Throwable e) {
+        if (e instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        if (e instanceof Error error) {
+            throw error;
+        }
+        throw new IllegalStateException(e);
+    }
+}
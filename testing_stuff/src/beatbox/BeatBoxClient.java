@@ -19,8 +19,7 @@ public class BeatBoxClient {
     int nextNum;
     Vector<String> listVector = new Vector<>();
     String userName;
-    ObjectOutputStream out;
-    ObjectInputStream in;
+    BeatBoxConnection connection;
     HashMap<String, boolean[]> otherSeqsMap = new HashMap<>();
     Sequencer sequencer;
     Sequence sequence;
@@ -38,9 +37,8 @@ public class BeatBoxClient {
     public void startUp() {
         userName = "Oleh"; // open connection to the server
         try {
-            Socket sock = new Socket("127.0.0.1", 4242);
-            out = new ObjectOutputStream(sock.getOutputStream());
-            in = new ObjectInputStream(sock.getInputStream());
+            connection = BeatBoxConnection.open("127.0.0.1", 4242); // binary if the server can, object streams if not
+            System.out.println("connected, binary protocol: " + connection.isBinary());
             Thread remote = new Thread(new RemoteReader());
             remote.start();
         } catch (Exception ex) {
@@ -180,8 +178,7 @@ public class BeatBoxClient {
             } // close loop
             String messageToSend = null;
             try {
-                out.writeObject(userName + nextNum++ + ": " + userMessage.getText());
-                out.writeObject(checkboxState);
+                connection.send(userName + nextNum++ + ": " + userMessage.getText(), checkboxState);
             } catch (Exception ex) {
                 System.out.println("Sorry dude. Could not send it to the server.");
             }
@@ -204,18 +201,14 @@ public class BeatBoxClient {
     }
 
     public class RemoteReader implements Runnable {
-        boolean[] checkboxState = null;
-        String nameToShow = null;
-        Object obj = null;
+        BeatMessage received = null;
 
         public void run() {
             try {
-                while ((obj = in.readObject()) != null) {
-                    System.out.println("got an object from server");
-                    System.out.println(obj.getClass());
-                    String nameToShow = (String) obj;
-                    checkboxState = (boolean[]) in.readObject();
-                    otherSeqsMap.put(nameToShow, checkboxState);
+                while ((received = connection.receive()) != null) {
+                    System.out.println("got a message from server");
+                    String nameToShow = received.message();
+                    otherSeqsMap.put(nameToShow, received.checkboxState());
                     listVector.add(nameToShow);
                     incomingList.setListData(listVector);
                 } // close while
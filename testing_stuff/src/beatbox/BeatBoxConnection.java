@@ -0,0 +1,127 @@
+package beatbox;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+
+/**
+ * Client side of a jam connection. {@link #open} asks the server for the binary format and falls back
+ * to object streams on servers that don't answer the hello.
+ */
+public abstract class BeatBoxConnection implements Closeable {
+    private static final int HANDSHAKE_TIMEOUT_MILLIS = 2000;
+
+    protected final Socket socket;
+
+    protected BeatBoxConnection(Socket socket) {
+        this.socket = socket;
+    }
+
+    public abstract void send(String message, boolean[] checkboxState) throws IOException;
+
+    /**
+     * @return next message from the server, null when the server closed the connection
+     */
+    public abstract BeatMessage receive() throws IOException;
+
+    public abstract boolean isBinary();
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    public static BeatBoxConnection open(String host, int port) throws IOException {
+        BeatBoxConnection binary = tryBinary(host, port);
+        if (binary != null) {
+            return binary;
+        }
+        // an old server took the hello as a broken object stream, start over with a clean connection
+        return new ObjectStreamConnection(new Socket(host, port));
+    }
+
+    private static BeatBoxConnection tryBinary(String host, int port) throws IOException {
+        Socket socket = new Socket();
+        socket.connect(new InetSocketAddress(host, port), HANDSHAKE_TIMEOUT_MILLIS);
+        try {
+            socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            byte[] header = new byte[ObjectStreamCodec.STREAM_HEADER.length];
+            in.readFully(header); // every server starts with the object stream header
+            out.write(BinaryPatternCodec.HELLO);
+            out.flush();
+            byte[] answer = new byte[BinaryPatternCodec.HELLO.length];
+            in.readFully(answer);
+            if (!BinaryPatternCodec.isHello(answer)) {
+                socket.close();
+                return null;
+            }
+            socket.setSoTimeout(0);
+            return new BinaryConnection(socket, in, out);
+        } catch (SocketTimeoutException | EOFException ex) {
+            socket.close();
+            return null;
+        }
+    }
+
+    private static class BinaryConnection extends BeatBoxConnection {
+        private final DataInputStream in;
+        private final DataOutputStream out;
+
+        BinaryConnection(Socket socket, DataInputStream in, DataOutputStream out) {
+            super(socket);
+            this.in = in;
+            this.out = out;
+        }
+
+        @Override
+        public synchronized void send(String message, boolean[] checkboxState) throws IOException {
+            BinaryPatternCodec.write(out, message, checkboxState);
+        }
+
+        @Override
+        public BeatMessage receive() throws IOException {
+            return BinaryPatternCodec.read(in);
+        }
+
+        @Override
+        public boolean isBinary() {
+            return true;
+        }
+    }
+
+    private static class ObjectStreamConnection extends BeatBoxConnection {
+        private final ObjectOutputStream out;
+        private final ObjectInputStream in;
+
+        ObjectStreamConnection(Socket socket) throws IOException {
+            super(socket);
+            out = new ObjectOutputStream(socket.getOutputStream());
+            in = new ObjectInputStream(socket.getInputStream());
+        }
+
+        @Override
+        public synchronized void send(String message, boolean[] checkboxState) throws IOException {
+            out.writeObject(message);
+            out.writeObject(checkboxState);
+        }
+
+        @Override
+        public BeatMessage receive() throws IOException {
+            try {
+                return new BeatMessage((String) in.readObject(), (boolean[]) in.readObject());
+            } catch (EOFException ex) {
+                return null;
+            } catch (ClassNotFoundException ex) {
+                throw new IOException(ex);
+            }
+        }
+
+        @Override
+        public boolean isBinary() {
+            return false;
+        }
+    }
+}
@@ -3,51 +3,101 @@ package beatbox;
 import java.io.*;
 import java.net.*;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class BeatBoxServer {
-    ArrayList<ObjectOutputStream> clientOutputStreams;
+    List<Peer> clientOutputStreams;
 
-    public static void main(String[] args) {
+    // "nio [workers]" starts the selector based server instead of a thread per client
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("nio")) {
+            NioBeatBoxServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         new BeatBoxServer().go();
     }
 
+    // a connected client, either on object streams or on the binary format of BinaryPatternCodec
+    interface Peer {
+        void send(String message, boolean[] checkboxState, byte[] binaryFrame) throws IOException;
+    }
+
     public class ClientHandler implements Runnable {
-        ObjectInputStream in;
         Socket clientSocket;
+        ObjectOutputStream out;
 
-        public ClientHandler(Socket socket) {
-            try {
-                clientSocket = socket;
-                in = new ObjectInputStream(clientSocket.getInputStream());
-            } catch (Exception ex) {
-                ex.printStackTrace();
-            }
+        public ClientHandler(Socket socket, ObjectOutputStream out) {
+            clientSocket = socket;
+            this.out = out;
         } // close constructor
 
         public void run() {
-            Object o2;
-            Object o1;
             try {
-                while ((o1 = in.readObject()) != null) {
-                    o2 = in.readObject();
-                    System.out.println("read two objects");
-                    tellEveryone(o1, o2);
-                } // close while
+                BufferedInputStream rawIn = new BufferedInputStream(clientSocket.getInputStream());
+                // the first 4 bytes tell if the client wants the binary format or is a plain object stream
+                rawIn.mark(BinaryPatternCodec.HELLO.length);
+                byte[] first = rawIn.readNBytes(BinaryPatternCodec.HELLO.length);
+                if (BinaryPatternCodec.isHello(first)) {
+                    runBinary(rawIn);
+                } else {
+                    rawIn.reset();
+                    runObjectStreams(rawIn);
+                }
             } catch (Exception ex) {
                 ex.printStackTrace();
             }
         } // close run
+
+        private void runObjectStreams(InputStream rawIn) throws IOException, ClassNotFoundException {
+            ObjectInputStream in = new ObjectInputStream(rawIn);
+            clientOutputStreams.add((message, checkboxState, binaryFrame) -> {
+                synchronized (out) {
+                    out.writeObject(message);
+                    out.writeObject(checkboxState);
+                }
+            });
+            Object o2;
+            Object o1;
+            while ((o1 = in.readObject()) != null) {
+                o2 = in.readObject();
+                System.out.println("read two objects");
+                // refused here, it couldn't go out to the binary clients
+                BinaryPatternCodec.checkEncodable((String) o1, (boolean[]) o2);
+                tellEveryone((String) o1, (boolean[]) o2);
+            } // close while
+        }
+
+        private void runBinary(InputStream rawIn) throws IOException {
+            DataInputStream in = new DataInputStream(rawIn);
+            OutputStream rawOut = clientSocket.getOutputStream();
+            synchronized (out) {
+                out.flush();
+                rawOut.write(BinaryPatternCodec.HELLO);
+                rawOut.flush();
+            }
+            clientOutputStreams.add((message, checkboxState, binaryFrame) -> {
+                synchronized (out) {
+                    rawOut.write(binaryFrame);
+                    rawOut.flush();
+                }
+            });
+            BeatMessage received;
+            while ((received = BinaryPatternCodec.read(in)) != null) {
+                System.out.println("read a binary message");
+                tellEveryone(received.message(), received.checkboxState());
+            }
+        }
     }
 
     public void go() {
-        clientOutputStreams = new ArrayList<>();
+        clientOutputStreams = new CopyOnWriteArrayList<>();
         try {
             ServerSocket serverSock = new ServerSocket(4242);
             while (true) {
                 Socket clientSocket = serverSock.accept();
+                // object stream header goes first to every client, old clients wait for it
                 ObjectOutputStream out = new ObjectOutputStream(clientSocket.getOutputStream());
-                clientOutputStreams.add(out);
-                Thread t = new Thread(new ClientHandler(clientSocket));
+                Thread t = new Thread(new ClientHandler(clientSocket, out));
                 t.start();
                 System.out.println("got a connection");
             }
@@ -56,13 +106,11 @@ public class BeatBoxServer {
         }
     } // close go
 
-    public void tellEveryone(Object one, Object two) {
-        Iterator it = clientOutputStreams.iterator();
-        while (it.hasNext()) {
+    public void tellEveryone(String message, boolean[] checkboxState) {
+        byte[] binaryFrame = BinaryPatternCodec.encode(message, checkboxState);
+        for (Peer peer : clientOutputStreams) {
             try {
-                ObjectOutputStream out = (ObjectOutputStream) it.next();
-                out.writeObject(one);
-                out.writeObject(two);
+                peer.send(message, checkboxState, binaryFrame);
             } catch (Exception ex) {
                 ex.printStackTrace();
             }
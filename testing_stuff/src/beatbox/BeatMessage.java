@@ -0,0 +1,7 @@
+package beatbox;
+
+/**
+ * One jam message: the chat line and the state of the 16x16 checkbox grid.
+ */
+public record BeatMessage(String message, boolean[] checkboxState) {
+}
@@ -0,0 +1,118 @@
+package beatbox;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Compact BeatBox wire format, version 1. A message is
+ * <pre>
+ *   u16 length | length bytes of UTF-8 message | 32 bytes with the 256 checkboxes, bit i of byte i / 8
+ * </pre>
+ * instead of two Java serialized objects. A client asks for it by sending {@link #HELLO} right after
+ * it got the object stream header from the server, the server answers with the same 4 bytes.
+ * Anything else and both sides stay on object streams.
+ */
+public class BinaryPatternCodec {
+    public static final int VERSION = 1;
+    /** can't be the start of an object stream, those start with 0xACED */
+    public static final byte[] HELLO = {'B', 'B', 'X', VERSION};
+    public static final int CHECKBOXES = 256;
+    public static final int PACKED_SIZE = CHECKBOXES / 8;
+    public static final int MAX_MESSAGE_BYTES = 0xFFFF;
+
+    public static byte[] encode(String message, boolean[] checkboxState) {
+        byte[] text = message.getBytes(StandardCharsets.UTF_8);
+        if (text.length > MAX_MESSAGE_BYTES) {
+            throw new IllegalArgumentException("Message is longer than " + MAX_MESSAGE_BYTES + " bytes");
+        }
+        byte[] frame = new byte[2 + text.length + PACKED_SIZE];
+        frame[0] = (byte) (text.length >>> 8);
+        frame[1] = (byte) text.length;
+        System.arraycopy(text, 0, frame, 2, text.length);
+        pack(checkboxState, frame, 2 + text.length);
+        return frame;
+    }
+
+    /**
+     * Object stream clients can send anything; a message this format can't carry is refused when it's
+     * read, so it can't fail later while being broadcast to binary clients.
+     */
+    static void checkEncodable(String message, boolean[] checkboxState) throws StreamCorruptedException {
+        if (checkboxState.length != CHECKBOXES) {
+            throw new StreamCorruptedException("Expected " + CHECKBOXES + " checkboxes, got " + checkboxState.length);
+        }
+        // a char is at most 3 UTF-8 bytes, only long messages need the exact count
+        if (message.length() * 3L > MAX_MESSAGE_BYTES
+                && message.getBytes(StandardCharsets.UTF_8).length > MAX_MESSAGE_BYTES) {
+            throw new StreamCorruptedException("Message is longer than " + MAX_MESSAGE_BYTES + " bytes");
+        }
+    }
+
+    public static void write(DataOutputStream out, String message, boolean[] checkboxState) throws IOException {
+        out.write(encode(message, checkboxState));
+        out.flush();
+    }
+
+    /**
+     * @return the next message or null when the stream ends between messages
+     */
+    public static BeatMessage read(DataInputStream in) throws IOException {
+        int high = in.read();
+        if (high < 0) {
+            return null;
+        }
+        int length = high << 8 | in.readUnsignedByte();
+        byte[] text = new byte[length];
+        in.readFully(text);
+        byte[] packed = new byte[PACKED_SIZE];
+        in.readFully(packed);
+        return new BeatMessage(new String(text, StandardCharsets.UTF_8), unpack(packed, 0));
+    }
+
+    /**
+     * Non-blocking variant for selector servers: reads one message if the buffer holds a whole one,
+     * otherwise returns null and leaves the position untouched.
+     */
+    public static BeatMessage read(ByteBuffer in) {
+        if (in.remaining() < 2) {
+            return null;
+        }
+        int length = (in.get(in.position()) & 0xFF) << 8 | in.get(in.position() + 1) & 0xFF;
+        if (in.remaining() < 2 + length + PACKED_SIZE) {
+            return null;
+        }
+        byte[] frame = new byte[length + PACKED_SIZE];
+        in.position(in.position() + 2);
+        in.get(frame);
+        return new BeatMessage(new String(frame, 0, length, StandardCharsets.UTF_8), unpack(frame, length));
+    }
+
+    static void pack(boolean[] checkboxState, byte[] target, int offset) {
+        if (checkboxState.length != CHECKBOXES) {
+            throw new IllegalArgumentException("Expected " + CHECKBOXES + " checkboxes, got " + checkboxState.length);
+        }
+        for (int i = 0; i < CHECKBOXES; i += 8) {
+            int bits = 0;
+            for (int bit = 0; bit < 8; bit++) {
+                if (checkboxState[i + bit]) {
+                    bits |= 1 << bit;
+                }
+            }
+            target[offset + i / 8] = (byte) bits;
+        }
+    }
+
+    static boolean[] unpack(byte[] source, int offset) {
+        boolean[] checkboxState = new boolean[CHECKBOXES];
+        for (int i = 0; i < CHECKBOXES; i++) {
+            checkboxState[i] = (source[offset + i / 8] & 1 << (i & 7)) != 0;
+        }
+        return checkboxState;
+    }
+
+    static boolean isHello(byte[] first4) {
+        return Arrays.equals(first4, HELLO);
+    }
+}
@@ -0,0 +1,322 @@
+package beatbox;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Selector based BeatBoxServer: one acceptor thread and a few worker threads, each worker owns a Selector
+ * with its share of the clients. Speaks the same object stream protocol, so BeatBoxClient works unchanged,
+ * and the binary format of {@link BinaryPatternCodec} for clients that send its hello.
+ * <p>
+ * A message is encoded once and put into a small bounded queue of every client. Workers write when
+ * the socket is ready, so one slow client never holds the others. A client whose queue is full
+ * is too slow to keep up with the jam and gets disconnected.
+ */
+public class NioBeatBoxServer {
+    private static final int READ_BUFFER_SIZE = 8 * 1024;
+    private static final int MAX_QUEUED_MESSAGES = 128;
+
+    private final int port;
+    private final Worker[] workers;
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+
+    public NioBeatBoxServer(int port, int workerCount) {
+        this.port = port;
+        this.workers = new Worker[workerCount];
+    }
+
+    public static void main(String[] args) throws IOException {
+        int workers = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        new NioBeatBoxServer(4242, workers).go();
+    }
+
+    public void go() throws IOException {
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker();
+            Thread thread = new Thread(workers[i], "beatbox-worker-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(port), 1024);
+            System.out.println("NIO BeatBox server is listening on " + port + " with " + workers.length + " workers");
+            int next = 0;
+            while (true) {
+                SocketChannel channel = server.accept();
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                workers[next++ % workers.length].register(channel);
+            }
+        }
+    }
+
+    private void tellEveryone(String message, boolean[] checkboxState) throws IOException {
+        // each format is encoded at most once per message, whatever the number of clients
+        ByteBuffer objectFormat = null;
+        ByteBuffer binaryFormat = null;
+        for (Client client : clients) {
+            if (client.evicting.get()) {
+                continue;
+            }
+            ByteBuffer shared;
+            if (client.binary) {
+                if (binaryFormat == null) {
+                    binaryFormat = ByteBuffer.wrap(BinaryPatternCodec.encode(message, checkboxState)).asReadOnlyBuffer();
+                }
+                shared = binaryFormat;
+            } else {
+                if (objectFormat == null) {
+                    objectFormat = ByteBuffer.wrap(ObjectStreamCodec.encode(message, checkboxState)).asReadOnlyBuffer();
+                }
+                shared = objectFormat;
+            }
+            // every client gets its own position over the same bytes
+            if (!client.outbox.offer(shared.duplicate())) {
+                // only the broadcast that finds the outbox full first closes the client
+                if (client.evicting.compareAndSet(false, true)) {
+                    System.out.println("evicting slow client " + client.name);
+                    client.worker.requestClose(client);
+                }
+            } else {
+                client.worker.requestWrite(client);
+            }
+        }
+    }
+
+    private class Client {
+        final SocketChannel channel;
+        final Worker worker;
+        final String name;
+        final ObjectStreamCodec.Decoder decoder = new ObjectStreamCodec.Decoder();
+        final Queue<ByteBuffer> outbox = new ArrayBlockingQueue<>(MAX_QUEUED_MESSAGES);
+        final AtomicBoolean writeRequested = new AtomicBoolean();
+        // set once the client is on its way out, later broadcasts skip it
+        final AtomicBoolean evicting = new AtomicBoolean();
+        ByteBuffer in = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        ByteBuffer writing;
+        // set once the first bytes from the client arrived, until then it doesn't get broadcasts
+        boolean negotiated;
+        volatile boolean binary;
+        String pendingMessage;
+        SelectionKey key;
+
+        Client(SocketChannel channel, Worker worker) {
+            this.channel = channel;
+            this.worker = worker;
+            String address;
+            try {
+                address = String.valueOf(channel.getRemoteAddress());
+            } catch (IOException e) {
+                address = "unknown";
+            }
+            this.name = address;
+        }
+    }
+
+    private class Worker implements Runnable {
+        private final Selector selector;
+        // other threads only put work here and wake the selector, channels are touched by this thread only
+        private final Queue<SocketChannel> newChannels = new ConcurrentLinkedQueue<>();
+        private final Queue<Client> writeRequests = new ConcurrentLinkedQueue<>();
+        private final Queue<Client> closeRequests = new ConcurrentLinkedQueue<>();
+
+        Worker() throws IOException {
+            selector = Selector.open();
+        }
+
+        void register(SocketChannel channel) {
+            newChannels.add(channel);
+            selector.wakeup();
+        }
+
+        void requestWrite(Client client) {
+            if (client.writeRequested.compareAndSet(false, true)) {
+                writeRequests.add(client);
+                selector.wakeup();
+            }
+        }
+
+        void requestClose(Client client) {
+            closeRequests.add(client);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                try {
+                    selector.select();
+                    processRequests();
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        Client client = (Client) key.attachment();
+                        try {
+                            if (key.isValid() && key.isReadable()) {
+                                read(client);
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                write(client);
+                            }
+                        } catch (IOException ex) {
+                            close(client);
+                        } catch (RuntimeException ex) {
+                            // a bug with one client must not stop the worker, its other clients would hang
+                            System.out.println("dropping " + client.name + ": " + ex);
+                            close(client);
+                        }
+                    }
+                } catch (IOException ex) {
+                    ex.printStackTrace();
+                }
+            }
+        }
+
+        private void processRequests() {
+            SocketChannel channel;
+            while ((channel = newChannels.poll()) != null) {
+                Client client = new Client(channel, this);
+                try {
+                    client.key = channel.register(selector, SelectionKey.OP_READ, client);
+                    // the classic client opens its ObjectInputStream right away and waits for the header
+                    client.outbox.offer(ByteBuffer.wrap(ObjectStreamCodec.STREAM_HEADER));
+                    write(client);
+                    System.out.println("got a connection from " + client.name);
+                } catch (IOException ex) {
+                    close(client);
+                }
+            }
+            Client client;
+            while ((client = closeRequests.poll()) != null) {
+                close(client);
+            }
+            while ((client = writeRequests.poll()) != null) {
+                client.writeRequested.set(false);
+                if (client.key != null && client.key.isValid()) {
+                    try {
+                        write(client);
+                    } catch (IOException ex) {
+                        close(client);
+                    }
+                }
+            }
+        }
+
+        private void read(Client client) throws IOException {
+            if (client.channel.read(client.in) < 0) {
+                close(client);
+                return;
+            }
+            client.in.flip();
+            try {
+                if (!client.negotiated) {
+                    if (client.in.remaining() < BinaryPatternCodec.HELLO.length) {
+                        client.in.compact();
+                        return;
+                    }
+                    negotiate(client);
+                }
+                if (client.binary) {
+                    BeatMessage received;
+                    while ((received = BinaryPatternCodec.read(client.in)) != null) {
+                        tellEveryone(received.message(), received.checkboxState());
+                    }
+                } else {
+                    readObjects(client);
+                }
+            } catch (StreamCorruptedException ex) {
+                System.out.println("dropping " + client.name + ": " + ex.getMessage());
+                close(client);
+                return;
+            }
+            client.in.compact();
+            if (!client.in.hasRemaining()) {
+                if (client.in.capacity() >= ObjectStreamCodec.MAX_OBJECT_SIZE * 2) {
+                    System.out.println("dropping " + client.name + ": message too big");
+                    close(client);
+                    return;
+                }
+                ByteBuffer bigger = ByteBuffer.allocate(client.in.capacity() * 2);
+                client.in.flip();
+                bigger.put(client.in);
+                client.in = bigger;
+            }
+        }
+
+        private void negotiate(Client client) {
+            byte[] first = new byte[BinaryPatternCodec.HELLO.length];
+            client.in.get(client.in.position(), first);
+            if (BinaryPatternCodec.isHello(first)) {
+                client.in.position(client.in.position() + first.length);
+                client.binary = true;
+                client.outbox.offer(ByteBuffer.wrap(BinaryPatternCodec.HELLO));
+                requestWrite(client);
+            }
+            client.negotiated = true;
+            clients.add(client);
+        }
+
+        // the client sends a name line followed by its checkboxes, the same pairs go out
+        private void readObjects(Client client) throws IOException {
+            Object obj;
+            while ((obj = client.decoder.next(client.in)) != ObjectStreamCodec.NEED_MORE) {
+                if (obj == ObjectStreamCodec.END) {
+                    close(client);
+                    return;
+                }
+                if (obj instanceof String message) {
+                    client.pendingMessage = message;
+                } else if (obj instanceof boolean[] checkboxState && client.pendingMessage != null) {
+                    BinaryPatternCodec.checkEncodable(client.pendingMessage, checkboxState);
+                    tellEveryone(client.pendingMessage, checkboxState);
+                    client.pendingMessage = null;
+                } else {
+                    throw new StreamCorruptedException("Unexpected " + obj.getClass().getSimpleName());
+                }
+            }
+        }
+
+        private void write(Client client) throws IOException {
+            while (true) {
+                if (client.writing == null) {
+                    client.writing = client.outbox.poll();
+                    if (client.writing == null) {
+                        client.key.interestOps(SelectionKey.OP_READ);
+                        return;
+                    }
+                }
+                client.channel.write(client.writing);
+                if (client.writing.hasRemaining()) {
+                    // socket buffer is full, wait until the selector says it's writable again
+                    client.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                client.writing = null;
+            }
+        }
+
+        private void close(Client client) {
+            if (clients.remove(client)) {
+                System.out.println("connection closed: " + client.name);
+            }
+            if (client.key != null) {
+                client.key.cancel();
+            }
+            try {
+                client.channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
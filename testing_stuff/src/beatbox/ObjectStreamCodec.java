@@ -0,0 +1,201 @@
+package beatbox;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Speaks the part of the Java serialization stream format BeatBoxClient uses (a String and a boolean[]
+ * per message), without blocking streams, so NioBeatBoxServer can read and write it from a selector thread.
+ * <p>
+ * Every encoded message starts with TC_RESET, so it doesn't depend on handles from earlier messages
+ * and the same bytes can be sent to every client.
+ */
+class ObjectStreamCodec {
+    static final byte[] STREAM_HEADER = {(byte) 0xAC, (byte) 0xED, 0x00, 0x05};
+
+    private static final byte TC_NULL = 0x70;
+    private static final byte TC_REFERENCE = 0x71;
+    private static final byte TC_CLASSDESC = 0x72;
+    private static final byte TC_STRING = 0x74;
+    private static final byte TC_ARRAY = 0x75;
+    private static final byte TC_ENDBLOCKDATA = 0x78;
+    private static final byte TC_RESET = 0x79;
+    private static final byte TC_LONGSTRING = 0x7C;
+    private static final int BASE_WIRE_HANDLE = 0x7e0000;
+    /** a chat line and 256 checkboxes are far below this, anything bigger is a broken or hostile client */
+    static final int MAX_OBJECT_SIZE = 64 * 1024;
+
+    /** returned by {@link Decoder#next(ByteBuffer)} when the buffer doesn't hold a whole object yet */
+    static final Object NEED_MORE = new Object();
+    /** returned when the client sent TC_NULL, the classic server stops reading at null too */
+    static final Object END = new Object();
+
+    static byte[] encode(String message, boolean[] checkboxState) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.reset();
+            out.writeObject(message);
+            out.writeObject(checkboxState);
+        }
+        byte[] withHeader = bytes.toByteArray();
+        byte[] body = new byte[withHeader.length - STREAM_HEADER.length];
+        System.arraycopy(withHeader, STREAM_HEADER.length, body, 0, body.length);
+        return body;
+    }
+
+    private record ClassDesc(String name) {
+    }
+
+    /**
+     * Incremental reader for one client stream. Keeps the handle table between calls,
+     * because ObjectOutputStream writes the boolean[] class descriptor only once and refers to it afterwards.
+     */
+    static class Decoder {
+        private static final Object TC_RESET_MARK = new Object();
+
+        private final List<Object> handles = new ArrayList<>();
+        private boolean headerRead;
+
+        /**
+         * Reads the next String or boolean[] from the buffer. On {@link #NEED_MORE} the buffer position is
+         * left where it was, so the caller can compact it, read more from the channel and call again.
+         */
+        Object next(ByteBuffer in) throws StreamCorruptedException {
+            while (true) {
+                int start = in.position();
+                int handleCount = handles.size();
+                boolean headerWasRead = headerRead;
+                try {
+                    if (!headerRead) {
+                        for (byte expected : STREAM_HEADER) {
+                            if (in.get() != expected) {
+                                throw new StreamCorruptedException("Not an object stream");
+                            }
+                        }
+                        headerRead = true;
+                    }
+                    Object result = readContent(in);
+                    // a reset is complete by itself, continue with a fresh handle table
+                    if (result != TC_RESET_MARK) {
+                        return result;
+                    }
+                } catch (BufferUnderflowException e) {
+                    in.position(start);
+                    headerRead = headerWasRead;
+                    handles.subList(handleCount, handles.size()).clear();
+                    return NEED_MORE;
+                }
+            }
+        }
+
+        private Object readContent(ByteBuffer in) throws StreamCorruptedException {
+            byte tag = in.get();
+            switch (tag) {
+                case TC_RESET:
+                    handles.clear();
+                    return TC_RESET_MARK;
+                case TC_NULL:
+                    return END;
+                case TC_STRING:
+                    return newHandle(readModifiedUtf(in, in.getShort() & 0xFFFF));
+                case TC_LONGSTRING:
+                    long length = in.getLong();
+                    if (length < 0 || length > MAX_OBJECT_SIZE) {
+                        throw new StreamCorruptedException("String too long: " + length);
+                    }
+                    return newHandle(readModifiedUtf(in, (int) length));
+                case TC_REFERENCE:
+                    Object referenced = reference(in.getInt());
+                    if (referenced instanceof ClassDesc) {
+                        throw new StreamCorruptedException("Class descriptor where an object was expected");
+                    }
+                    return referenced;
+                case TC_ARRAY:
+                    ClassDesc desc = readClassDesc(in);
+                    if (!desc.name().equals("[Z")) {
+                        throw new StreamCorruptedException("Unexpected array type " + desc.name());
+                    }
+                    int handle = handles.size();
+                    handles.add(null);
+                    int size = in.getInt();
+                    if (size < 0 || size > MAX_OBJECT_SIZE) {
+                        throw new StreamCorruptedException("Bad array length " + size);
+                    }
+                    if (in.remaining() < size) {
+                        throw new BufferUnderflowException();
+                    }
+                    boolean[] values = new boolean[size];
+                    for (int i = 0; i < size; i++) {
+                        values[i] = in.get() != 0;
+                    }
+                    handles.set(handle, values);
+                    return values;
+                default:
+                    throw new StreamCorruptedException(String.format("Unsupported type code 0x%02X", tag));
+            }
+        }
+
+        private ClassDesc readClassDesc(ByteBuffer in) throws StreamCorruptedException {
+            byte tag = in.get();
+            if (tag == TC_REFERENCE) {
+                if (reference(in.getInt()) instanceof ClassDesc desc) {
+                    return desc;
+                }
+                throw new StreamCorruptedException("Reference is not a class descriptor");
+            }
+            if (tag != TC_CLASSDESC) {
+                throw new StreamCorruptedException(String.format("Unexpected class descriptor code 0x%02X", tag));
+            }
+            ClassDesc desc = new ClassDesc(readModifiedUtf(in, in.getShort() & 0xFFFF));
+            in.getLong(); // serialVersionUID
+            handles.add(desc);
+            in.get(); // flags
+            if (in.getShort() != 0) {
+                throw new StreamCorruptedException("Only arrays without fields are supported");
+            }
+            if (in.get() != TC_ENDBLOCKDATA || in.get() != TC_NULL) {
+                throw new StreamCorruptedException("Unexpected class annotation or super class");
+            }
+            return desc;
+        }
+
+        private Object newHandle(Object value) {
+            handles.add(value);
+            return value;
+        }
+
+        private Object reference(int wireHandle) throws StreamCorruptedException {
+            int index = wireHandle - BASE_WIRE_HANDLE;
+            if (index < 0 || index >= handles.size() || handles.get(index) == null) {
+                throw new StreamCorruptedException("Bad handle " + wireHandle);
+            }
+            return handles.get(index);
+        }
+
+        // DataInput's modified UTF-8: like UTF-8, but \0 takes 2 bytes and supplementary chars are surrogate pairs
+        private static String readModifiedUtf(ByteBuffer in, int length) throws StreamCorruptedException {
+            if (in.remaining() < length) {
+                throw new BufferUnderflowException();
+            }
+            char[] chars = new char[length];
+            int count = 0;
+            int end = in.position() + length;
+            while (in.position() < end) {
+                int b = in.get() & 0xFF;
+                if (b < 0x80) {
+                    chars[count++] = (char) b;
+                } else if ((b & 0xE0) == 0xC0 && in.position() < end) {
+                    chars[count++] = (char) ((b & 0x1F) << 6 | in.get() & 0x3F);
+                } else if ((b & 0xF0) == 0xE0 && in.position() + 1 < end) {
+                    chars[count++] = (char) ((b & 0x0F) << 12 | (in.get() & 0x3F) << 6 | in.get() & 0x3F);
+                } else {
+                    throw new StreamCorruptedException("Malformed string");
+                }
+            }
+            return new String(chars, 0, count);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package beatbox;
+
+import java.io.*;
+import java.util.Random;
+
+/**
+ * Bytes on the wire and encode/decode time per message, object streams vs {@link BinaryPatternCodec}.
+ * Object streams are measured the way BeatBoxClient uses them: one long lived stream and a new String and
+ * boolean[] per message, so the boolean[] class descriptor is paid once and later messages refer to it.
+ * Just a main method with a warmup round, good enough to see the order of magnitude.
+ */
+public class WireFormatBenchmark {
+    private static final int MESSAGES = 100_000;
+
+    public static void main(String[] args) throws Exception {
+        // all distinct objects, a repeated one would be written as a back reference by ObjectOutputStream
+        BeatMessage[] messages = new BeatMessage[MESSAGES];
+        Random random = new Random(42);
+        for (int i = 0; i < messages.length; i++) {
+            boolean[] state = new boolean[256];
+            for (int j = 0; j < state.length; j++) {
+                state[j] = random.nextInt(4) == 0;
+            }
+            messages[i] = new BeatMessage("Oleh" + i + ": check this groove", state);
+        }
+
+        for (int round = 0; round < 2; round++) {
+            System.out.println(round == 0 ? "warmup" : "measure");
+            objectStreams(messages);
+            binary(messages);
+        }
+    }
+
+    private static void objectStreams(BeatMessage[] messages) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(MESSAGES * 400);
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.flush();
+        int header = bytes.size();
+        out.writeObject(messages[0].message());
+        out.writeObject(messages[0].checkboxState());
+        out.flush();
+        int firstMessage = bytes.size() - header;
+
+        long start = System.nanoTime();
+        for (int i = 1; i < MESSAGES; i++) {
+            BeatMessage message = messages[i];
+            out.writeObject(message.message());
+            out.writeObject(message.checkboxState());
+        }
+        out.flush();
+        long encodeNanos = System.nanoTime() - start;
+        int total = bytes.size() - header;
+
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        start = System.nanoTime();
+        for (int i = 0; i < MESSAGES; i++) {
+            in.readObject();
+            in.readObject();
+        }
+        long decodeNanos = System.nanoTime() - start;
+        report("object streams", firstMessage, (double) (total - firstMessage) / (MESSAGES - 1),
+                (double) encodeNanos / (MESSAGES - 1), (double) decodeNanos / MESSAGES);
+    }
+
+    private static void binary(BeatMessage[] messages) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(MESSAGES * 80);
+        DataOutputStream out = new DataOutputStream(bytes);
+        long start = System.nanoTime();
+        for (int i = 0; i < MESSAGES; i++) {
+            BeatMessage message = messages[i];
+            out.write(BinaryPatternCodec.encode(message.message(), message.checkboxState()));
+        }
+        long encodeNanos = System.nanoTime() - start;
+        int first = BinaryPatternCodec.encode(messages[0].message(), messages[0].checkboxState()).length;
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        start = System.nanoTime();
+        for (int i = 0; i < MESSAGES; i++) {
+            BinaryPatternCodec.read(in);
+        }
+        long decodeNanos = System.nanoTime() - start;
+        report("binary v" + BinaryPatternCodec.VERSION, first, (double) bytes.size() / MESSAGES,
+                (double) encodeNanos / MESSAGES, (double) decodeNanos / MESSAGES);
+    }
+
+    private static void report(String name, int firstBytes, double bytesPerMessage, double encodeNs, double decodeNs) {
+        System.out.printf("  %-15s first message %4d bytes, then %6.1f bytes/msg, encode %7.1f ns/msg, decode %7.1f ns/msg%n",
+                name, firstBytes, bytesPerMessage, encodeNs, decodeNs);
+    }
+}
@@ -0,0 +1,56 @@
+package src.collections;
+
+import java.util.Objects;
+
+class Song implements Comparable<Song> {
+    private final String name;
+    private final String singer;
+    private String rating;
+
+    public Song(String name, String singer) {
+        this.name = name;
+        this.singer = singer;
+    }
+
+    public Song(String name, String singer, String rating) {
+        this.name = name;
+        this.singer = singer;
+        this.rating = rating;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSinger() {
+        return singer;
+    }
+
+    public String getRating() {
+        return rating;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("\n Name: '%s', Singer: '%s'", getName(), getSinger());
+    }
+
+    public int compareTo(Song song) {
+        // alphabetic order
+        return getName().compareTo(song.getName());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Song)) return false;
+        Song song = (Song) o;
+        return getName().equals(song.getName()) &&
+                getSinger().equals(song.getSinger());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getName(), getSinger());
+    }
+}
@@ -0,0 +1,134 @@
+package src.collections;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Song library that keeps itself sorted: every song is put into a name index and an artist index
+ * (both red-black trees) when it's added, so listing is a read-only view of an index instead of a sort.
+ * A hash index counts the copies of every song in O(1), a song added again only bumps its count and the
+ * trees keep one entry for it.
+ * Artist names are shared between songs, since a large catalog repeats the same few artists a lot.
+ */
+class SongIndex {
+    static final Comparator<Song> BY_NAME = Comparator.comparing(Song::getName).thenComparing(Song::getSinger);
+    // a null name sorts after every name of the artist, only used as the upper bound in byArtist(String)
+    static final Comparator<Song> BY_ARTIST = Comparator.comparing(Song::getSinger)
+            .thenComparing(Song::getName, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final HashMap<Song, Integer> copies = new HashMap<>();
+    private int total;
+    private final TreeSet<Song> byName = new TreeSet<>(BY_NAME);
+    private final TreeSet<Song> byArtist = new TreeSet<>(BY_ARTIST);
+    private final HashMap<String, String> artists = new HashMap<>();
+
+    /**
+     * O(log n). Returns false if the same song (name and artist) is already in the library, it then
+     * counts as one more copy.
+     */
+    public boolean addSong(Song song) {
+        String singer = artists.computeIfAbsent(song.getSinger(), s -> s);
+        if (singer != song.getSinger()) {
+            song = new Song(song.getName(), singer, song.getRating());
+        }
+        total++;
+        if (copies.merge(song, 1, Integer::sum) > 1) {
+            return false;
+        }
+        byName.add(song);
+        byArtist.add(song);
+        return true;
+    }
+
+    /**
+     * Removes one copy of the song, it leaves the indices with the last one.
+     */
+    public boolean removeSong(Song song) {
+        Integer count = copies.get(song);
+        if (count == null) {
+            return false;
+        }
+        total--;
+        if (count > 1) {
+            copies.put(song, count - 1);
+            return true;
+        }
+        copies.remove(song);
+        byName.remove(song);
+        byArtist.remove(song);
+        return true;
+    }
+
+    public boolean contains(Song song) {
+        return copies.containsKey(song);
+    }
+
+    /**
+     * Distinct songs.
+     */
+    public int size() {
+        return copies.size();
+    }
+
+    public int copies(Song song) {
+        return copies.getOrDefault(song, 0);
+    }
+
+    /**
+     * Songs sorted by name, then artist. A live, unmodifiable view.
+     */
+    public NavigableSet<Song> byName() {
+        return Collections.unmodifiableNavigableSet(byName);
+    }
+
+    /**
+     * Songs sorted by artist, then name. A live, unmodifiable view.
+     */
+    public NavigableSet<Song> byArtist() {
+        return Collections.unmodifiableNavigableSet(byArtist);
+    }
+
+    /**
+     * The songs of one artist, sorted by name. A live, unmodifiable view.
+     */
+    public NavigableSet<Song> byArtist(String artist) {
+        return Collections.unmodifiableNavigableSet(byArtist.subSet(new Song("", artist), true, new Song(null, artist), false));
+    }
+
+    /**
+     * All songs in no particular order. A live, unmodifiable view.
+     */
+    public Set<Song> distinct() {
+        return Collections.unmodifiableSet(copies.keySet());
+    }
+
+    /**
+     * Every song added, copies included, sorted by name, then artist. O(n) walk of the index.
+     */
+    public List<Song> allByName() {
+        return withCopies(byName);
+    }
+
+    /**
+     * Every song added, copies included, sorted by artist, then name.
+     */
+    public List<Song> allByArtist() {
+        return withCopies(byArtist);
+    }
+
+    private List<Song> withCopies(NavigableSet<Song> order) {
+        List<Song> all = new ArrayList<>(total);
+        for (Song song : order) {
+            for (int copy = copies.get(song); copy > 0; copy--) {
+                all.add(song);
+            }
+        }
+        return all;
+    }
+}
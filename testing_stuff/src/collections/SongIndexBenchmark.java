@@ -0,0 +1,62 @@
+package src.collections;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+
+/**
+ * Loads a generated catalog into a {@link SongIndex} and compares listing through the index
+ * with the old way of sorting the whole list on every call.
+ * Run: java -Xmx4g src.collections.SongIndexBenchmark [songs]   (10M songs take about 2 GB of heap)
+ */
+public class SongIndexBenchmark {
+    private static final int ARTISTS = 50_000;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        SplittableRandom random = new SplittableRandom(42);
+        ArrayList<Song> catalog = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // every 100th song is a duplicate of an earlier one
+            int id = i % 100 == 99 ? random.nextInt(i) : i;
+            catalog.add(new Song("Song " + Long.toString((long) id * 7919 % count, 36), "Artist " + id % ARTISTS));
+        }
+
+        SongIndex index = new SongIndex();
+        long start = System.nanoTime();
+        int added = 0;
+        for (Song song : catalog) {
+            if (index.addSong(song)) {
+                added++;
+            }
+        }
+        long addNanos = System.nanoTime() - start;
+        System.out.printf("index:   added %,d of %,d songs in %,d ms (%,d ns/song)%n",
+                added, count, addNanos / 1_000_000, addNanos / count);
+
+        start = System.nanoTime();
+        Song first = index.byName().first();
+        Song firstOfArtist = index.byArtist("Artist 123").first();
+        long listNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        Iterator<Song> all = index.byArtist().iterator();
+        long walked = 0;
+        while (all.hasNext()) {
+            all.next();
+            walked++;
+        }
+        long walkNanos = System.nanoTime() - start;
+        System.out.printf("index:   first by name %s, first of Artist 123 %s in %,d us; full listing of %,d songs in %,d ms%n",
+                first.getName(), firstOfArtist.getName(), listNanos / 1_000, walked, walkNanos / 1_000_000);
+
+        start = System.nanoTime();
+        Collections.sort(catalog, SongIndex.BY_ARTIST);
+        System.out.printf("sorting: one listing by artist takes %,d ms, and every call sorts again%n",
+                (System.nanoTime() - start) / 1_000_000);
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        System.out.printf("heap used: %,d MB%n", (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+    }
+}
@@ -0,0 +1,146 @@
+package src.collections;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Reads a "name/artist" per line songs file of any size. The file is memory-mapped in chunks that end on
+ * a line break, and the chunks are parsed in parallel by scanning bytes for '/' and '\n' (both are single
+ * bytes in UTF-8, never part of a multi-byte character), so there is no regex and no line-by-line reader.
+ * A bad line doesn't stop the parsing: it is reported with its byte offset and skipped.
+ */
+class SongsFileReader {
+    static final int CHUNK_SIZE = 8 << 20;
+
+    /**
+     * A line that is not "name/artist".
+     *
+     * @param offset byte offset of the line in the file
+     */
+    record BadLine(long offset, String line, String reason) {
+        @Override
+        public String toString() {
+            return "Not valid song at byte " + offset + " (" + reason + "): \"" + line + "\"";
+        }
+    }
+
+    /**
+     * Every song of the file plus the lines that couldn't be parsed, both in file order.
+     */
+    record Catalog(List<Song> songs, List<BadLine> badLines) {
+    }
+
+    /**
+     * Songs of the file in file order. The stream is parallel, and {@code badLines} can be called from
+     * several threads at once. Songs are handed to the stream as they are parsed, a chunk is never
+     * held as a list.
+     */
+    public static Stream<Song> songs(Path file, Consumer<BadLine> badLines) {
+        long[] bounds = chunkBounds(file);
+        return IntStream.range(0, bounds.length - 1)
+                .parallel()
+                .boxed()
+                .mapMulti((chunk, songs) -> parseChunk(file, bounds[chunk], bounds[chunk + 1], songs, badLines));
+    }
+
+    /**
+     * Parses the whole file in parallel into memory.
+     */
+    public static Catalog load(Path file) {
+        Queue<BadLine> badLines = new ConcurrentLinkedQueue<>();
+        List<Song> songs = songs(file, badLines::add).toList();
+        List<BadLine> sorted = new ArrayList<>(badLines);
+        sorted.sort((a, b) -> Long.compare(a.offset(), b.offset()));
+        return new Catalog(songs, sorted);
+    }
+
+    /**
+     * Offsets where the chunks start, plus the file size at the end. Every chunk but the first starts
+     * right after a '\n', so no line is split between two chunks.
+     */
+    static long[] chunkBounds(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<Long> bounds = new ArrayList<>();
+            bounds.add(0L);
+            ByteBuffer probe = ByteBuffer.allocate(4096);
+            long position = CHUNK_SIZE;
+            while (position < size) {
+                long lineStart = nextLineStart(channel, position, probe);
+                if (lineStart >= size) {
+                    break;
+                }
+                bounds.add(lineStart);
+                position = lineStart + CHUNK_SIZE;
+            }
+            bounds.add(size);
+            return bounds.stream().mapToLong(Long::longValue).toArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, ByteBuffer probe) throws IOException {
+        while (true) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+    }
+
+    private static void parseChunk(Path file, long start, long end, Consumer<Song> songs, Consumer<BadLine> badLines) {
+        // one bulk copy out of the mapping, scanning a byte[] is much faster than get(i) on the buffer
+        byte[] bytes = new byte[(int) (end - start)];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.map(FileChannel.MapMode.READ_ONLY, start, bytes.length).get(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int lineStart = 0;
+        while (lineStart < bytes.length) {
+            int slash = -1;
+            int slashes = 0;
+            int lineEnd = lineStart;
+            for (byte b; lineEnd < bytes.length && (b = bytes[lineEnd]) != '\n'; lineEnd++) {
+                if (b == '/') {
+                    slashes++;
+                    slash = lineEnd;
+                }
+            }
+            int next = lineEnd + 1;
+            // the same line endings as BufferedReader.readLine
+            if (lineEnd > lineStart && bytes[lineEnd - 1] == '\r') {
+                lineEnd--;
+            }
+            if (slashes == 1 && slash > lineStart && slash < lineEnd - 1) {
+                songs.accept(new Song(new String(bytes, lineStart, slash - lineStart, StandardCharsets.UTF_8),
+                        new String(bytes, slash + 1, lineEnd - slash - 1, StandardCharsets.UTF_8)));
+            } else {
+                String reason = slashes == 0 ? "no '/'" : slashes > 1 ? "more than one '/'" : "empty name or artist";
+                badLines.accept(new BadLine(start + lineStart,
+                        new String(bytes, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8), reason));
+            }
+            lineStart = next;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package src.collections;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Generates a songs file (1 GB by default, one line in a thousand is broken) and parses it with the old
+ * BufferedReader + String.split loop and with {@link SongsFileReader}. Songs are counted, not kept,
+ * so the heap doesn't decide the result.
+ * Run: java src.collections.SongsFileReaderBenchmark [megabytes] [file]
+ */
+public class SongsFileReaderBenchmark {
+    public static void main(String[] args) throws IOException {
+        long megabytes = args.length > 0 ? Long.parseLong(args[0]) : 1024;
+        Path file = args.length > 1 ? Paths.get(args[1]) : Paths.get(System.getProperty("java.io.tmpdir"), "songs-" + megabytes + "mb.txt");
+        if (!Files.exists(file) || Files.size(file) < megabytes << 20) {
+            generate(file, megabytes << 20);
+        }
+        double size = Files.size(file) / (double) (1 << 20);
+
+        long start = System.nanoTime();
+        long[] old = splitLoop(file);
+        report("BufferedReader + split", old[0], old[1], size, System.nanoTime() - start);
+
+        for (int run = 0; run < 2; run++) {
+            LongAdder bad = new LongAdder();
+            start = System.nanoTime();
+            long songs = SongsFileReader.songs(file, badLine -> bad.increment()).count();
+            report("mapped chunks, parallel", songs, bad.sum(), size, System.nanoTime() - start);
+        }
+    }
+
+    private static long[] splitLoop(Path file) throws IOException {
+        long songs = 0;
+        long bad = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] song = line.split("/");
+                if (song.length == 2) {
+                    new Song(song[0], song[1]);
+                    songs++;
+                } else {
+                    bad++;
+                }
+            }
+        }
+        return new long[]{songs, bad};
+    }
+
+    private static void report(String reader, long songs, long bad, double megabytes, long nanos) {
+        double seconds = nanos / 1e9;
+        System.out.printf("%-24s %,12d songs %,8d bad lines %7.2f s %8.1f MB/s%n", reader, songs, bad, seconds, megabytes / seconds);
+    }
+
+    private static void generate(Path file, long bytes) throws IOException {
+        SplittableRandom random = new SplittableRandom(7);
+        long written = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (long i = 0; written < bytes; i++) {
+                String line = i % 1000 == 999
+                        ? "broken line " + i
+                        : "Song " + Long.toString(random.nextLong(1L << 40), 36) + "/Artist " + random.nextInt(50_000);
+                writer.write(line);
+                writer.newLine();
+                written += line.length() + 1;
+            }
+        }
+    }
+}
@@ -1,9 +1,5 @@
 package src.collections;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
-import java.lang.reflect.Array;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
@@ -25,133 +21,46 @@ public class TestSongsSorting {
 }
 
 class JukeBox {
-    private final ArrayList<Song> songs;
-    private final SongsComparator songsSorting = new SongsComparator();
+    private final SongIndex songs = new SongIndex();
 
     public JukeBox(Path songsPath) {
-        this.songs = SongsReader.parseSongList(songsPath);
+        for (Song song : SongsReader.parseSongList(songsPath)) {
+            songs.addSong(song);
+        }
     }
 
-    public void addSong(Song song) {
-        songs.add(song);
+    public boolean addSong(Song song) {
+        return songs.addSong(song);
     }
 
+    // every line of the file, repeated songs too
     public void listBySongs() {
-        Collections.sort(songs, songsSorting.bySongName());
-        System.out.println(songs);
+        System.out.println(songs.allByName());
     }
 
     public void listByArtist() {
-        Collections.sort(songs, songsSorting.byArtist());
-        System.out.println(songs);
+        System.out.println(songs.allByArtist());
     }
 
     public void hashSetSongs() {
-        HashSet<Song> hashedSongs = new HashSet<>();
-        hashedSongs.addAll(songs);
-        System.out.println(hashedSongs);
+        System.out.println(songs.distinct());
     }
 
+    // a TreeSet compares by name only, so of the songs sharing a name just the first one stays
     public void treeSetSongs() {
-        TreeSet<Song> treeSongs = new TreeSet<>(new SongsComparator().bySongName());
-        treeSongs.addAll(songs);
+        TreeSet<Song> treeSongs = new TreeSet<>(Comparator.comparing(Song::getName));
+        treeSongs.addAll(songs.byName());
         System.out.println(treeSongs);
     }
-
-    class SongsComparator {
-        public Comparator bySongName() {
-            class CompareByName implements Comparator<Song> {
-                @Override
-                public int compare(Song o1, Song o2) {
-                    return o1.getName().compareTo(o2.getName());
-                }
-            }
-
-            return new CompareByName();
-        }
-
-        public Comparator byArtist() {
-            class CompareByArtist implements Comparator<Song> {
-                @Override
-                public int compare(Song o1, Song o2) {
-                    return o1.getSinger().compareTo(o2.getSinger());
-                }
-            }
-
-            return new CompareByArtist();
-        }
-    }
-}
-
-class Song implements Comparable<Song> {
-    private final String name;
-    private final String singer;
-    private String rating;
-
-    public Song(String name, String singer) {
-        this.name = name;
-        this.singer = singer;
-    }
-
-    public Song(String name, String singer, String rating) {
-        this.name = name;
-        this.singer = singer;
-        this.rating = rating;
-    }
-
-    public String getName() {
-        return name;
-    }
-
-    public String getSinger() {
-        return singer;
-    }
-
-    @Override
-    public String toString() {
-        return String.format("\n Name: '%s', Singer: '%s'", getName(), getSinger());
-    }
-
-    public int compareTo(Song song) {
-        // alphabetic order
-        return getName().compareTo(song.getName());
-    }
-
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (!(o instanceof Song)) return false;
-        Song song = (Song) o;
-        return getName().equals(song.getName()) &&
-                getSinger().equals(song.getSinger());
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(getName(), getSinger());
-    }
 }
 
 class SongsReader {
+    /**
+     * Bad lines are reported on System.err and skipped, see {@link SongsFileReader}.
+     */
     public static ArrayList<Song> parseSongList(Path filePath) {
-        ArrayList<Song> songs = new ArrayList<>();
-        try {
-            BufferedReader reader = new BufferedReader(new FileReader(filePath.toString()));
-            String line;
-            while ((line = reader.readLine()) != null) {
-                songs.add(parseSong(line));
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        return songs;
+        SongsFileReader.Catalog catalog = SongsFileReader.load(filePath);
+        catalog.badLines().forEach(System.err::println);
+        return new ArrayList<>(catalog.songs());
     }
-
-    private static Song parseSong(String line) {
-        String[] song = line.split("/");
-        if (song.length != 2) {
-            throw new Error("Not valid song cannot be parsed: \"" + line + "\".");
-        }
-        return new Song(song[0], song[1]);
-    }
-}
\ No newline at end of file
+}
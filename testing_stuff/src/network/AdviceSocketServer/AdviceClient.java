@@ -1,21 +1,48 @@
 package network.AdviceSocketServer;
 
 import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.PrintWriter;
 import java.net.Socket;
 
-public class AdviceClient {
+public class AdviceClient implements Closeable {
+    private final Socket socket;
+    private final BufferedReader reader;
+    private final PrintWriter writer;
+    private boolean firstAdviceRead;
+
+    public AdviceClient(String host, int port) throws IOException {
+        socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+        writer = new PrintWriter(socket.getOutputStream(), true);
+    }
+
+    /**
+     * The server sends the first advice right after connect, every next one needs a keep-alive server
+     * and is asked for with a line.
+     */
+    public String nextAdvice() throws IOException {
+        if (firstAdviceRead) {
+            writer.println("more");
+        }
+        firstAdviceRead = true;
+        return reader.readLine();
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
     public static void main(String[] args) {
-        try {
-            Socket socket = new Socket("127.0.0.1", 5000);
-            InputStreamReader stream = new InputStreamReader(socket.getInputStream());
-            BufferedReader reader = new BufferedReader(stream);
-            String advice = reader.readLine();
+        try (AdviceClient client = new AdviceClient("127.0.0.1", 5000)) {
+            String advice = client.nextAdvice();
             System.out.format("Advice of the day: \"%s\"", advice);
-            socket.close();
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,68 @@
+package network.AdviceSocketServer;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hammers a local AdviceServer with {@link AdviceClient}s and prints requests/sec.
+ * Arguments: [clients] [seconds] [keepalive]. Without keepalive every request is a new connection,
+ * with it every client asks for advices over one connection (the server has to run with keepalive too).
+ */
+public class AdviceLoadGenerator {
+    public static void main(String[] args) throws InterruptedException {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        boolean keepAlive = args.length > 2 && args[2].equals("keepalive");
+
+        LongAdder requests = new LongAdder();
+        LongAdder errors = new LongAdder();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(clients);
+        for (int i = 0; i < clients; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        if (keepAlive) {
+                            runSession(deadline, requests);
+                        } else {
+                            try (AdviceClient client = new AdviceClient("127.0.0.1", 5000)) {
+                                if (client.nextAdvice() != null) {
+                                    requests.increment();
+                                }
+                            }
+                        }
+                    }
+                } catch (IOException e) {
+                    errors.increment();
+                } finally {
+                    done.countDown();
+                }
+            });
+            thread.start();
+        }
+
+        long start = System.nanoTime();
+        long lastCount = 0;
+        while (!done.await(1, TimeUnit.SECONDS)) {
+            long count = requests.sum();
+            System.out.println((count - lastCount) + " req/s");
+            lastCount = count;
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d clients, keep-alive: %b, %d requests in %.1fs = %.0f req/s, %d clients failed%n",
+                clients, keepAlive, requests.sum(), elapsed, requests.sum() / elapsed, errors.sum());
+    }
+
+    private static void runSession(long deadline, LongAdder requests) throws IOException {
+        try (AdviceClient client = new AdviceClient("127.0.0.1", 5000)) {
+            while (System.nanoTime() < deadline) {
+                if (client.nextAdvice() == null) {
+                    return;
+                }
+                requests.increment();
+            }
+        }
+    }
+}
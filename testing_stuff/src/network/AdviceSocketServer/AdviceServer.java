@@ -1,34 +1,119 @@
 package network.AdviceSocketServer;
 
-import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.*;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.Charset;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
 
+/**
+ * Sends an advice line to everyone who connects.
+ * <p>
+ * Arguments: [single|pool|virtual] [pool size] [keepalive]
+ * <ul>
+ *     <li>single - the original mode, every connection is served on the accept thread</li>
+ *     <li>pool - connections are served by a fixed thread pool</li>
+ *     <li>virtual - a virtual thread per connection, needs Java 21, falls back to pool on older JVMs</li>
+ * </ul>
+ * With keepalive the connection stays open after the first advice, every line the client sends
+ * is answered with one more advice, so one connection can ask for many. AdviceClient reads one line
+ * and closes, which works the same in every mode.
+ */
 public class AdviceServer {
+    private static final int PORT = 5000;
+    private static final int KEEP_ALIVE_TIMEOUT_MILLIS = 30_000;
+    private static final String[] ADVICE_LIST = {"Take smaller bites", "Go for the tight jeans. No they do NOT make you look fat.",
+            "One word: inappropriate", "Just for today, be honest. Tell your boss what you *really* think",
+            "You might want to rethink that haircut."};
+    // encoded once, the same bytes PrintWriter.println would send
+    private static final byte[][] ENCODED_ADVICE = encode(ADVICE_LIST);
+
+    private final boolean keepAlive;
+
+    public AdviceServer(boolean keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
     public static void main(String[] args) {
+        String mode = args.length > 0 ? args[0] : "single";
+        int poolSize = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors() * 4;
+        // one kept-alive client would block everybody else in single mode
+        boolean keepAlive = !mode.equals("single") && args.length > 2 && args[2].equals("keepalive");
+        AdviceServer adviceServer = new AdviceServer(keepAlive);
         try {
-            ServerSocket server = new ServerSocket(5000);
-            while (true){
-                Socket socket = server.accept(); // blocks until connection
-                PrintWriter writer = new PrintWriter(socket.getOutputStream());
-                String advice = getAdvice();
-                writer.println(advice);
-                writer.close();
-                System.out.println("Sent the advice: " + advice);
+            if (mode.equals("single")) {
+                adviceServer.serveSequentially();
+            } else {
+                adviceServer.serveConcurrently(mode.equals("virtual") ? virtualThreadExecutor(poolSize)
+                        : Executors.newFixedThreadPool(poolSize));
             }
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
-    private static String getAdvice() {
-        String[] adviceList = {"Take smaller bites", "Go for the tight jeans. No they do NOT make you look fat.",
-                "One word: inappropriate", "Just for today, be honest. Tell your boss what you *really* think",
-                "You might want to rethink that haircut."};
+    public void serveSequentially() throws IOException {
+        ServerSocket server = new ServerSocket(PORT);
+        System.out.println("Serving advices one connection at a time");
+        while (true){
+            Socket socket = server.accept(); // blocks until connection
+            serve(socket);
+        }
+    }
 
-        int random = (int) (Math.random() * adviceList.length);
-        return adviceList[random];
+    public void serveConcurrently(ExecutorService executor) throws IOException {
+        ServerSocket server = new ServerSocket(PORT, 1024);
+        System.out.println("Serving advices concurrently, keep-alive: " + keepAlive);
+        while (true) {
+            Socket socket = server.accept();
+            executor.execute(() -> serve(socket));
+        }
     }
-}
 
+    private void serve(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            sendAdvice(out);
+            if (!keepAlive) {
+                return;
+            }
+            socket.setSoTimeout(KEEP_ALIVE_TIMEOUT_MILLIS);
+            BufferedReader requests = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            while (requests.readLine() != null) {
+                sendAdvice(out);
+            }
+        } catch (SocketTimeoutException e) {
+            // idle keep-alive connection, just close it
+        } catch (IOException e) {
+            System.out.println("Couldn't send the advice: " + e.getMessage());
+        }
+    }
+
+    private static void sendAdvice(OutputStream out) throws IOException {
+        out.write(ENCODED_ADVICE[ThreadLocalRandom.current().nextInt(ENCODED_ADVICE.length)]);
+        out.flush();
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor exists from Java 21, the code is compiled for older JVMs too
+    private static ExecutorService virtualThreadExecutor(int fallbackPoolSize) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            System.out.println("No virtual threads on Java " + Runtime.version().feature() + ", using a pool of " + fallbackPoolSize);
+            return Executors.newFixedThreadPool(fallbackPoolSize);
+        }
+    }
+
+    private static byte[][] encode(String[] adviceList) {
+        Charset charset = Charset.defaultCharset();
+        byte[][] encoded = new byte[adviceList.length][];
+        for (int i = 0; i < adviceList.length; i++) {
+            encoded[i] = (adviceList[i] + System.lineSeparator()).getBytes(charset);
+        }
+        return encoded;
+    }
+}
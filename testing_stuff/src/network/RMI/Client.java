@@ -1,6 +1,5 @@
 package network.RMI;
 
-import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
 
 public class Client {
@@ -9,11 +8,14 @@ public class Client {
 
     public static void main(String[] args) {
         String host = (args.length < 1) ? null : args[0];
+        // with a second argument the values come in one batched round trip
+        int count = (args.length < 2) ? 1 : Integer.parseInt(args[1]);
         try {
-            Registry registry = LocateRegistry.getRegistry(host);
-            IRemote stub = (IRemote) registry.lookup("Say_Hello_Remote");
-            String response = stub.getRemoteServiceData();
-            System.out.println("Remote data is: " + response);
+            String[] responses = RemoteStubs.call(host, Registry.REGISTRY_PORT, "Say_Hello_Remote", IBatchRemote.class,
+                    stub -> count == 1 ? new String[]{stub.getRemoteServiceData()} : stub.getRemoteServiceData(count));
+            for (String response : responses) {
+                System.out.println("Remote data is: " + response);
+            }
         } catch (Exception e) {
             System.err.println("Client exception: " + e.toString());
             e.printStackTrace();
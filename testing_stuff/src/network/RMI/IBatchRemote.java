@@ -0,0 +1,13 @@
+package network.RMI;
+
+import java.rmi.RemoteException;
+
+/**
+ * Same service, but many results per round trip.
+ */
+public interface IBatchRemote extends IRemote {
+    /** the most results one call may ask for, the server allocates them all at once */
+    int MAX_COUNT = 10_000;
+
+    public String[] getRemoteServiceData(int count) throws RemoteException;
+}
@@ -0,0 +1,107 @@
+package network.RMI;
+
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Client side {@link IRemote} that coalesces calls: whatever threads call getRemoteServiceData()
+ * within the window (or until maxBatch calls are waiting) goes to the server as one
+ * {@link IBatchRemote#getRemoteServiceData(int)} round trip, and every caller gets its own result.
+ * Callers still block like on a plain stub, they just share the latency. Up to maxInFlight batches
+ * can be on the wire at the same time, the next one fills up while the previous ones are out.
+ * <p>
+ * Not a remote object itself, it lives only in the client JVM.
+ */
+public class PipeliningRemote implements IRemote, AutoCloseable {
+    private final IBatchRemote stub;
+    private final long windowMicros;
+    private final int maxBatch;
+    private final ScheduledExecutorService flusher;
+    private final List<CompletableFuture<String>> pending = new ArrayList<>();
+    // at most one timed and one immediate flush are waiting at any time, however many callers there are
+    private boolean flushScheduled;
+    private boolean flushQueued;
+
+    public PipeliningRemote(IBatchRemote stub, long windowMicros, int maxBatch, int maxInFlight) {
+        if (maxBatch <= 0 || maxBatch > IBatchRemote.MAX_COUNT) {
+            throw new IllegalArgumentException("maxBatch must be between 1 and " + IBatchRemote.MAX_COUNT + ": " + maxBatch);
+        }
+        this.stub = stub;
+        this.windowMicros = windowMicros;
+        this.maxBatch = maxBatch;
+        this.flusher = Executors.newScheduledThreadPool(maxInFlight, r -> {
+            Thread thread = new Thread(r, "rmi-pipeline");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public String getRemoteServiceData() throws RemoteException {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        synchronized (this) {
+            pending.add(result);
+            scheduleFlush();
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RemoteException("Interrupted while waiting for the batch", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RemoteException remoteException) {
+                throw remoteException;
+            }
+            throw new RemoteException("Batch call failed", e.getCause());
+        }
+    }
+
+    // a full batch goes out right away, otherwise when the window is over
+    private void scheduleFlush() {
+        if (pending.size() >= maxBatch) {
+            if (!flushQueued) {
+                flushQueued = true;
+                flusher.execute(() -> flush(false));
+            }
+        } else if (!pending.isEmpty() && !flushScheduled) {
+            flushScheduled = true;
+            flusher.schedule(() -> flush(true), windowMicros, TimeUnit.MICROSECONDS);
+        }
+    }
+
+    // sends the oldest maxBatch calls at most, what's left waits for the next flush
+    private void flush(boolean timed) {
+        List<CompletableFuture<String>> batch;
+        synchronized (this) {
+            if (timed) {
+                flushScheduled = false;
+            } else {
+                flushQueued = false;
+            }
+            List<CompletableFuture<String>> oldest = pending.subList(0, Math.min(pending.size(), maxBatch));
+            batch = new ArrayList<>(oldest);
+            oldest.clear();
+            scheduleFlush();
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            String[] results = stub.getRemoteServiceData(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).complete(results[i]);
+            }
+        } catch (Exception e) {
+            for (CompletableFuture<String> call : batch) {
+                call.completeExceptionally(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+    }
+}
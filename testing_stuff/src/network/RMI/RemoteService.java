@@ -3,11 +3,23 @@ package network.RMI;
 import java.rmi.RemoteException;
 import java.rmi.server.UnicastRemoteObject;
 
-public class RemoteService extends UnicastRemoteObject implements IRemote {
+public class RemoteService extends UnicastRemoteObject implements IBatchRemote {
     public RemoteService() throws RemoteException {}
 
     @Override
     public String getRemoteServiceData() throws RemoteException {
         return "Hello form remote service!";
     }
+
+    @Override
+    public String[] getRemoteServiceData(int count) throws RemoteException {
+        if (count < 0 || count > MAX_COUNT) {
+            throw new IllegalArgumentException("count must be between 0 and " + MAX_COUNT + ": " + count);
+        }
+        String[] data = new String[count];
+        for (int i = 0; i < count; i++) {
+            data[i] = getRemoteServiceData();
+        }
+        return data;
+    }
 }
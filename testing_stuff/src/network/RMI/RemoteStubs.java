@@ -0,0 +1,62 @@
+package network.RMI;
+
+import java.rmi.ConnectException;
+import java.rmi.NoSuchObjectException;
+import java.rmi.NotBoundException;
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.rmi.registry.LocateRegistry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Looks stubs up in the registry once and keeps them. A stub stays valid as long as the remote object
+ * is exported, so the registry round trip is only needed again after {@link #invalidate} (e.g. the server restarted).
+ * {@link #call} does that on its own.
+ */
+public class RemoteStubs {
+    private static final ConcurrentMap<String, Remote> stubs = new ConcurrentHashMap<>();
+
+    public interface RemoteCall<T extends Remote, R> {
+        R call(T stub) throws RemoteException;
+    }
+
+    private RemoteStubs() {
+    }
+
+    public static <T extends Remote> T lookup(String host, int port, String name, Class<T> type)
+            throws RemoteException, NotBoundException {
+        String key = host + ":" + port + "/" + name;
+        Remote stub = stubs.get(key);
+        if (stub == null) {
+            stub = LocateRegistry.getRegistry(host, port).lookup(name);
+            Remote raced = stubs.putIfAbsent(key, stub);
+            if (raced != null) {
+                stub = raced;
+            }
+        }
+        return type.cast(stub);
+    }
+
+    public static void invalidate(String host, int port, String name) {
+        stubs.remove(host + ":" + port + "/" + name);
+    }
+
+    /**
+     * Calls the cached stub. Any RemoteException drops it from the cache; when the call surely never ran
+     * (the object or the server is gone, e.g. after a restart) it is retried once with a fresh lookup.
+     */
+    public static <T extends Remote, R> R call(String host, int port, String name, Class<T> type, RemoteCall<T, R> call)
+            throws RemoteException, NotBoundException {
+        T stub = lookup(host, port, name, type);
+        try {
+            return call.call(stub);
+        } catch (NoSuchObjectException | ConnectException e) {
+            stubs.remove(host + ":" + port + "/" + name, stub);
+            return call.call(lookup(host, port, name, type));
+        } catch (RemoteException e) {
+            stubs.remove(host + ":" + port + "/" + name, stub);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package network.RMI;
+
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Calls/sec against a registry in this JVM (still real RMI over loopback TCP):
+ * plain stub calls, the same through {@link PipeliningRemote}, and explicit batches of {@link IBatchRemote}.
+ * Arguments: [threads] [seconds] [batch size].
+ */
+public class RmiBatchBenchmark {
+    private static final int PORT = 10_099;
+    private static final String NAME = "Say_Hello_Remote";
+
+    interface Calls {
+        // makes some calls and returns how many
+        int run() throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int batchSize = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+
+        System.setProperty("java.rmi.server.hostname", "127.0.0.1");
+        Registry registry = LocateRegistry.createRegistry(PORT);
+        RemoteService service = new RemoteService();
+        registry.bind(NAME, service);
+
+        IBatchRemote stub = RemoteStubs.lookup("127.0.0.1", PORT, NAME, IBatchRemote.class);
+        measure("plain stub", threads, seconds, () -> {
+            stub.getRemoteServiceData();
+            return 1;
+        });
+        measure("lookup every call", threads, seconds, () -> {
+            ((IRemote) LocateRegistry.getRegistry("127.0.0.1", PORT).lookup(NAME)).getRemoteServiceData();
+            return 1;
+        });
+        try (PipeliningRemote pipelined = new PipeliningRemote(stub, 200, batchSize, 4)) {
+            measure("pipelined", threads, seconds, () -> {
+                pipelined.getRemoteServiceData();
+                return 1;
+            });
+        }
+        measure("batch of " + batchSize, threads, seconds, () -> stub.getRemoteServiceData(batchSize).length);
+        System.exit(0);
+    }
+
+    private static void measure(String name, int threads, int seconds, Calls calls) throws InterruptedException {
+        LongAdder count = new LongAdder();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(threads);
+        long start = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            new Thread(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        count.add(calls.run());
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-18s %d threads: %,.0f calls/sec%n", name, threads, count.sum() / elapsed);
+    }
+}
@@ -0,0 +1,156 @@
+package network.SimpleChat;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fan-out for chat lines. Messages go into a ring buffer once, already encoded, and every connection has
+ * its own writer thread with a cursor into the ring. A writer takes everything published since its
+ * last batch, writes it into its buffer and flushes once, so a client costs one syscall per batch
+ * instead of one per message, and the sender never waits for any client's socket.
+ * <p>
+ * Appends are serialized by a lock that only covers putting the slot into the ring, readers never lock.
+ * A client that falls more than the ring size behind is disconnected.
+ */
+public class ChatBroadcaster {
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    // a slot remembers its sequence, so a reader can tell it was overwritten by a lap of the ring
+    private record Entry(long sequence, byte[] line) {
+    }
+
+    private final Entry[] ring;
+    private final int mask;
+    private final Charset charset = Charset.defaultCharset();
+    private final byte[] lineSeparator = System.lineSeparator().getBytes(charset);
+    // sequence of the next message, messages before it are readable
+    private volatile long published;
+    private final Object signal = new Object();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    public ChatBroadcaster(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two: " + capacity);
+        }
+        ring = new Entry[capacity];
+        mask = capacity - 1;
+    }
+
+    public void publish(String message) {
+        // encode outside the lock, the same bytes go to every client
+        publishLine(encodeLine(message));
+    }
+
+    /**
+     * Line in the bytes clients read, as PrintWriter.println would send it.
+     */
+    public byte[] encodeLine(String message) {
+        byte[] text = message.getBytes(charset);
+        byte[] line = new byte[text.length + lineSeparator.length];
+        System.arraycopy(text, 0, line, 0, text.length);
+        System.arraycopy(lineSeparator, 0, line, text.length, lineSeparator.length);
+        return line;
+    }
+
+    public void publishLine(byte[] line) {
+        synchronized (this) {
+            long sequence = published;
+            ring[(int) (sequence & mask)] = new Entry(sequence, line);
+            published = sequence + 1;
+        }
+        if (waiting.get() > 0) {
+            synchronized (signal) {
+                signal.notifyAll();
+            }
+        }
+    }
+
+    public int connectionCount() {
+        return connections.get();
+    }
+
+    /**
+     * Starts a writer thread for the socket, it gets messages published from now on.
+     */
+    public void subscribe(Socket socket) throws IOException {
+        subscribe(socket, null);
+    }
+
+    /**
+     * Same, but the writer first sends the history tail straight from the log file. The cursor is taken
+     * right here, so if the caller takes the tail and subscribes under the same lock it appends and
+     * publishes under, the client gets every line exactly once.
+     */
+    public void subscribe(Socket socket, ChatLog.Tail history) throws IOException {
+        Subscriber subscriber = new Subscriber(socket, history);
+        Thread thread = new Thread(subscriber, "chat-writer-" + socket.getRemoteSocketAddress());
+        thread.setDaemon(true);
+        connections.incrementAndGet();
+        thread.start();
+    }
+
+    private long awaitAfter(long cursor) throws InterruptedException {
+        long available = published;
+        if (available > cursor) {
+            return available;
+        }
+        synchronized (signal) {
+            waiting.incrementAndGet();
+            try {
+                while ((available = published) <= cursor) {
+                    signal.wait();
+                }
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+        return available;
+    }
+
+    private class Subscriber implements Runnable {
+        private final Socket socket;
+        private final OutputStream out;
+        private final ChatLog.Tail history;
+        private long cursor = published;
+
+        Subscriber(Socket socket, ChatLog.Tail history) throws IOException {
+            this.socket = socket;
+            this.history = history;
+            this.out = new BufferedOutputStream(socket.getOutputStream(), WRITE_BUFFER_SIZE);
+        }
+
+        public void run() {
+            try {
+                if (history != null && socket.getChannel() != null) {
+                    history.transferTo(socket.getChannel());
+                }
+                while (true) {
+                    long available = awaitAfter(cursor);
+                    for (long sequence = cursor; sequence < available; sequence++) {
+                        Entry entry = ring[(int) (sequence & mask)];
+                        if (entry.sequence() != sequence) {
+                            System.out.println("client is " + (available - cursor) + " messages behind, disconnecting");
+                            return;
+                        }
+                        out.write(entry.line());
+                    }
+                    out.flush();
+                    cursor = available;
+                }
+            } catch (IOException | InterruptedException ex) {
+                System.out.println("connection closed: " + ex.getMessage());
+            } finally {
+                connections.decrementAndGet();
+                try {
+                    socket.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+}
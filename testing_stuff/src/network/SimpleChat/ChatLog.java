@@ -0,0 +1,221 @@
+package network.SimpleChat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Append-only chat history in memory-mapped segment files (chat-&lt;position&gt;.log). Lines are stored exactly
+ * as they are sent to clients, so replaying history is a FileChannel.transferTo of a byte range straight
+ * into the socket, nothing is read back into the heap or encoded again.
+ * <p>
+ * Positions are global and contiguous over segments: a segment is named after the position of its first
+ * byte. Only the start positions of the last {@code tailCapacity} lines are kept in memory.
+ * When there are more than {@code maxSegments} segments the oldest file is deleted.
+ * <p>
+ * Every segment file starts with a small header holding the number of bytes written, updated after each
+ * append. Lines are whatever bytes clients sent, zeros included, so the end can't be told from the data.
+ */
+public class ChatLog implements Closeable {
+    private static final String PREFIX = "chat-";
+    private static final String SUFFIX = ".log";
+    /** "CHL1" */
+    private static final int MAGIC = 0x43484C31;
+    /** magic, then the segment's end as an int */
+    private static final int HEADER_SIZE = 8;
+    private static final int END_OFFSET = 4;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final long[] lineStarts;
+    private long lineCount;
+
+    private static class Segment {
+        final long base;
+        final Path path;
+        final FileChannel channel;
+        final MappedByteBuffer map;
+        // bytes of data, they start after the header
+        int end;
+
+        Segment(Path path, long base, int size) throws IOException {
+            this.base = base;
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.map = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) size);
+        }
+
+        int capacity() {
+            return map.limit() - HEADER_SIZE;
+        }
+
+        // the data goes in first, a crash in between leaves a line the header doesn't count yet
+        void append(byte[] line) {
+            map.put(HEADER_SIZE + end, line);
+            end += line.length;
+            map.putInt(END_OFFSET, end);
+        }
+    }
+
+    /**
+     * Byte range of the log to replay, taken under the lock, sent without it.
+     * Bytes before the log end never change, so appends going on meanwhile don't matter.
+     */
+    public static class Tail {
+        private final List<FileChannel> channels = new ArrayList<>();
+        private final List<long[]> ranges = new ArrayList<>();
+        private final int lines;
+
+        private Tail(int lines) {
+            this.lines = lines;
+        }
+
+        public int lines() {
+            return lines;
+        }
+
+        public long transferTo(WritableByteChannel target) throws IOException {
+            long sent = 0;
+            for (int i = 0; i < channels.size(); i++) {
+                long position = HEADER_SIZE + ranges.get(i)[0];
+                long end = HEADER_SIZE + ranges.get(i)[1];
+                while (position < end) {
+                    long written = channels.get(i).transferTo(position, end - position, target);
+                    position += written;
+                    sent += written;
+                }
+            }
+            return sent;
+        }
+    }
+
+    public ChatLog(Path directory, int segmentSize, int maxSegments, int tailCapacity) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.lineStarts = new long[tailCapacity];
+        Files.createDirectories(directory);
+        recover();
+        if (segments.isEmpty()) {
+            segments.add(newSegment(0));
+        }
+    }
+
+    public synchronized void append(byte[] line) throws IOException {
+        if (line.length > segmentSize) {
+            throw new IllegalArgumentException("Line of " + line.length + " bytes doesn't fit a segment of " + segmentSize);
+        }
+        Segment current = segments.getLast();
+        if (current.end + line.length > current.capacity()) {
+            current = roll(current);
+        }
+        lineStarts[(int) (lineCount % lineStarts.length)] = current.base + current.end;
+        lineCount++;
+        current.append(line);
+    }
+
+    /**
+     * The last n lines that are still on disk and in the in-memory index.
+     */
+    public synchronized Tail tail(int n) {
+        int lines = (int) Math.min(Math.min(n, lineCount), lineStarts.length);
+        Segment last = segments.getLast();
+        long end = last.base + last.end;
+        long start = lines == 0 ? end : lineStarts[(int) ((lineCount - lines) % lineStarts.length)];
+        start = Math.max(start, segments.getFirst().base);
+        Tail tail = new Tail(lines);
+        for (Segment segment : segments) {
+            long from = Math.max(start, segment.base) - segment.base;
+            long to = Math.min(end, segment.base + segment.end) - segment.base;
+            if (from < to) {
+                tail.channels.add(segment.channel);
+                tail.ranges.add(new long[]{from, to});
+            }
+        }
+        return tail;
+    }
+
+    public synchronized long lineCount() {
+        return lineCount;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Segment segment : segments) {
+            segment.map.force();
+            segment.channel.close();
+        }
+        segments.clear();
+    }
+
+    private Segment roll(Segment current) throws IOException {
+        current.map.force();
+        Segment next = newSegment(current.base + current.end);
+        segments.addLast(next);
+        while (segments.size() > maxSegments) {
+            Segment oldest = segments.removeFirst();
+            // a replay still sending from this segment fails, keep maxSegments well above what a tail needs
+            oldest.channel.close();
+            Files.deleteIfExists(oldest.path);
+        }
+        return next;
+    }
+
+    private Segment newSegment(long base) throws IOException {
+        Segment segment = new Segment(segmentPath(base), base, segmentSize);
+        segment.map.putInt(0, MAGIC);
+        segment.map.putInt(END_OFFSET, 0);
+        return segment;
+    }
+
+    // reopens existing segments, takes their ends from the headers and finds the last line starts by scanning
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(p -> p.getFileName().toString().startsWith(PREFIX)
+                            && p.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long base = Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+            Segment segment = new Segment(file, base, (int) Math.max(segmentSize, Files.size(file) - HEADER_SIZE));
+            int magic = segment.map.getInt(0);
+            int end = segment.map.getInt(END_OFFSET);
+            if (magic == 0 && end == 0) {
+                // created but never written to
+                segment.map.putInt(0, MAGIC);
+            } else if (magic != MAGIC || end < 0 || end > segment.capacity()) {
+                segment.channel.close();
+                throw new IOException(file + " is not a chat log segment");
+            }
+            boolean lineStart = true;
+            for (int i = 0; i < end; i++) {
+                if (lineStart) {
+                    lineStarts[(int) (lineCount % lineStarts.length)] = base + i;
+                    lineCount++;
+                }
+                lineStart = segment.map.get(HEADER_SIZE + i) == '\n';
+            }
+            segment.end = end;
+            segments.add(segment);
+        }
+    }
+
+    private Path segmentPath(long base) {
+        return directory.resolve(String.format("%s%020d%s", PREFIX, base, SUFFIX));
+    }
+}
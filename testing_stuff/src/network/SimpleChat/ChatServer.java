@@ -1,51 +1,78 @@
 package network.SimpleChat;
 
-import javax.swing.*;
-import java.awt.*;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.net.ServerSocket;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
+/**
+ * Headless chat server: any number of ChatClients, every line goes to everybody and into a {@link ChatLog}.
+ * A client that connects first gets the last lines of the history, sent from the log file with transferTo.
+ * Arguments: log directory (default chat-log) and the number of lines to replay (default 100).
+ */
 public class ChatServer {
-    JTextArea area;
-    JPanel mainPanel;
-
-    public void go() {
-        JFrame frame = new JFrame("Ludicrously Simple Chat Server");
-        mainPanel = new JPanel();
-        area = new JTextArea("");
-        mainPanel.add(area);
-        frame.getContentPane().add(BorderLayout.CENTER, mainPanel);
-        frame.setSize(400, 500);
-        frame.setVisible(true);
-        listen();
+    private static final int PORT = 5000;
+    private static final int SEGMENT_SIZE = 16 * 1024 * 1024;
+    private static final int MAX_SEGMENTS = 64;
+    private static final int BACKLOG = 1 << 16;
+
+    private final ChatLog log;
+    private final ChatBroadcaster broadcaster = new ChatBroadcaster(BACKLOG);
+    private final int replayLines;
+
+    public ChatServer(Path logDirectory, int replayLines) throws IOException {
+        this.log = new ChatLog(logDirectory, SEGMENT_SIZE, MAX_SEGMENTS, Math.max(1, replayLines));
+        this.replayLines = replayLines;
+    }
+
+    public void listen() {
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(PORT));
+            System.out.println("Chat server is listening on " + PORT + ", " + log.lineCount() + " lines in the log");
+            while (true) {
+                SocketChannel channel = server.accept(); // blocks until connection
+                Socket socket = channel.socket();
+                synchronized (this) {
+                    broadcaster.subscribe(socket, log.tail(replayLines));
+                }
+                Thread reader = new Thread(() -> readMessages(socket));
+                reader.start();
+                System.out.println("got a connection, " + broadcaster.connectionCount() + " connected");
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 
-    private void listen() {
+    private void readMessages(Socket socket) {
         try {
-            ServerSocket server = new ServerSocket(5000);
-            while (true){
-                Socket socket = server.accept(); // blocks until connection
-                InputStreamReader stream = new InputStreamReader(socket.getInputStream());
-                BufferedReader reader = new BufferedReader(stream);
-                String message = reader.readLine();
-                System.out.println("Got message");
-                System.out.println(message);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            String message;
+            while ((message = reader.readLine()) != null) {
                 addMessage(message);
             }
         } catch (IOException e) {
-            e.printStackTrace();
+            System.out.println("client left: " + e.getMessage());
         }
     }
 
-    private void addMessage(String message) {
-        area.append(message);
-        mainPanel.repaint();
+    private void addMessage(String message) throws IOException {
+        byte[] line = broadcaster.encodeLine(message);
+        // the log and the broadcast get lines in the same order, a new client's replay and live part meet exactly
+        synchronized (this) {
+            log.append(line);
+            broadcaster.publishLine(line);
+        }
     }
 
-    public static void main(String[] args) {
-        new ChatServer().go();
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : "chat-log");
+        int replayLines = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        new ChatServer(directory, replayLines).listen();
     }
 }
@@ -2,10 +2,11 @@ package network.SimpleChat;
 
 import java.io.*;
 import java.net.*;
-import java.util.*;
 
 public class ChatServerFromBook {
-    ArrayList clientOutputStreams;
+    // room for the messages a slow client may be behind before it's dropped
+    private static final int BACKLOG = 1 << 16;
+    ChatBroadcaster broadcaster;
 
     public class ClientHandler implements Runnable {
         BufferedReader reader;
@@ -39,13 +40,12 @@ public class ChatServerFromBook {
     }
 
     public void go() {
-        clientOutputStreams = new ArrayList();
+        broadcaster = new ChatBroadcaster(BACKLOG);
         try {
             ServerSocket serverSock = new ServerSocket(5000);
             while (true) {
                 Socket clientSocket = serverSock.accept();
-                PrintWriter writer = new PrintWriter(clientSocket.getOutputStream());
-                clientOutputStreams.add(writer);
+                broadcaster.subscribe(clientSocket);
                 Thread t = new Thread(new ClientHandler(clientSocket));
                 t.start();
                 System.out.println("got a connection");
@@ -56,15 +56,6 @@ public class ChatServerFromBook {
     } // close go
 
     public void tellEveryone(String message) {
-        Iterator it = clientOutputStreams.iterator();
-        while (it.hasNext()) {
-            try {
-                PrintWriter writer = (PrintWriter) it.next();
-                writer.println(message);
-                writer.flush();
-            } catch (Exception ex) {
-                ex.printStackTrace();
-            }
-        } // end while
+        broadcaster.publish(message);
     } // close tellEveryone
-}
\ No newline at end of file
+}
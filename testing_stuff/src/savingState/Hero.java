@@ -0,0 +1,8 @@
+package savingState;
+
+import java.io.Serializable;
+
+abstract class Hero implements Serializable {
+    boolean superPower = true;
+    String name;
+}
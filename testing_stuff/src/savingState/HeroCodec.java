@@ -0,0 +1,249 @@
+package savingState;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Binary hero file format, written and read through a buffered {@link FileChannel}.
+ * <pre>
+ * header: magic "HERO" | u16 schema version | i64 record count
+ * record: i32 body length | body
+ * body:   u8 hero type | u8 superPower | string name | u8 has power | string power type (if present)
+ * string: u16 byte length (0xFFFF = null) | UTF-8 bytes
+ * </pre>
+ * Every field is written explicitly, {@code Power} included, and the record count is in the file itself,
+ * so a file can be read back by another process. The length prefix lets a reader skip or locate records
+ * without decoding them.
+ * <p>
+ * A save goes to a temporary file next to the target that is then moved over it, so a hero that can't be
+ * encoded or a crash halfway leaves the previous save intact.
+ */
+final class HeroCodec {
+    static final int MAGIC = 0x4845524F; // "HERO"
+    static final short SCHEMA_VERSION = 1;
+    static final int HEADER_SIZE = 4 + 2 + 8;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte SOME_GAME_HERO = 1;
+    private static final short NULL_STRING = -1;
+    private static final int MAX_STRING_BYTES = 0xFFFE;
+    /** type, superPower, name length, has power */
+    private static final int MIN_BODY_SIZE = 1 + 1 + 2 + 1;
+
+    private HeroCodec() {
+    }
+
+    public static void write(Path file, Collection<? extends Hero> heroes) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            writeTo(temp, heroes);
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeTo(Path file, Collection<? extends Hero> heroes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            writeHeader(buffer, heroes.size());
+            for (Hero hero : heroes) {
+                byte[] name = utf8(hero.name);
+                byte[] power = powerType(hero);
+                int size = 4 + bodySize(hero, name, power);
+                if (buffer.remaining() < size) {
+                    drain(channel, buffer);
+                    if (buffer.capacity() < size) {
+                        buffer = ByteBuffer.allocate(size);
+                    }
+                }
+                encode(buffer, hero, name, power);
+            }
+            drain(channel, buffer);
+            channel.force(false);
+        }
+    }
+
+    public static ArrayList<Hero> read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            buffer.flip();
+            buffer = fill(channel, buffer, HEADER_SIZE);
+            long count = readHeader(buffer);
+            // a record takes at least 4 + MIN_BODY_SIZE bytes, a count the file can't hold is corrupt
+            if (count < 0 || count > (channel.size() - HEADER_SIZE) / (4 + MIN_BODY_SIZE)) {
+                throw new IOException("Corrupt hero file: record count " + count);
+            }
+            ArrayList<Hero> heroes = new ArrayList<>((int) count);
+            for (long i = 0; i < count; i++) {
+                buffer = fill(channel, buffer, 4);
+                int length = buffer.getInt();
+                if (length < MIN_BODY_SIZE || length > channel.size()) {
+                    throw new IOException("Corrupt hero file: record " + i + " has length " + length);
+                }
+                buffer = fill(channel, buffer, length);
+                int end = buffer.position() + length;
+                int limit = buffer.limit();
+                // the body may not read past its own record
+                buffer.limit(end);
+                try {
+                    heroes.add(decodeBody(buffer));
+                } catch (BufferUnderflowException e) {
+                    throw new IOException("Corrupt hero file: record " + i + " is shorter than its fields", e);
+                }
+                buffer.limit(limit).position(end);
+            }
+            return heroes;
+        }
+    }
+
+    static void writeHeader(ByteBuffer buffer, long count) {
+        buffer.putInt(MAGIC).putShort(SCHEMA_VERSION).putLong(count);
+    }
+
+    /**
+     * Checks magic and version and returns the record count.
+     */
+    static long readHeader(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a hero file");
+        }
+        short version = buffer.getShort();
+        if (version != SCHEMA_VERSION) {
+            throw new IOException("Unsupported hero file version " + version);
+        }
+        return buffer.getLong();
+    }
+
+    /**
+     * Size of the record, length prefix included.
+     */
+    static int recordSize(Hero hero) {
+        return 4 + bodySize(hero, utf8(hero.name), powerType(hero));
+    }
+
+    static void encode(ByteBuffer buffer, Hero hero) {
+        encode(buffer, hero, utf8(hero.name), powerType(hero));
+    }
+
+    /**
+     * Decodes the body of a record, the buffer must be positioned after the length prefix.
+     */
+    static Hero decodeBody(ByteBuffer buffer) throws IOException {
+        byte type = buffer.get();
+        if (type != SOME_GAME_HERO) {
+            throw new IOException("Unknown hero type " + type);
+        }
+        boolean superPower = buffer.get() != 0;
+        String name = getString(buffer);
+        Power power = buffer.get() != 0 ? new Power(getString(buffer)) : null;
+        SomeGameHero hero = new SomeGameHero(name, power);
+        hero.superPower = superPower;
+        return hero;
+    }
+
+    private static void encode(ByteBuffer buffer, Hero hero, byte[] name, byte[] power) {
+        if (!(hero instanceof SomeGameHero)) {
+            throw new IllegalArgumentException("No codec for " + hero.getClass().getName());
+        }
+        buffer.putInt(bodySize(hero, name, power));
+        buffer.put(SOME_GAME_HERO);
+        buffer.put((byte) (hero.superPower ? 1 : 0));
+        putString(buffer, name);
+        boolean hasPower = powerOf(hero) != null;
+        buffer.put((byte) (hasPower ? 1 : 0));
+        if (hasPower) {
+            putString(buffer, power);
+        }
+    }
+
+    private static Power powerOf(Hero hero) {
+        return hero instanceof SomeGameHero ? ((SomeGameHero) hero).powerType : null;
+    }
+
+    private static byte[] powerType(Hero hero) {
+        Power power = powerOf(hero);
+        return power != null ? utf8(power.getType()) : null;
+    }
+
+    private static int bodySize(Hero hero, byte[] name, byte[] power) {
+        int size = 1 + 1 + 2 + (name != null ? name.length : 0) + 1;
+        if (powerOf(hero) != null) {
+            size += 2 + (power != null ? power.length : 0);
+        }
+        return size;
+    }
+
+    static byte[] utf8(String s) {
+        if (s == null) {
+            return null;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("String longer than " + MAX_STRING_BYTES + " bytes");
+        }
+        return bytes;
+    }
+
+    static void putString(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putShort(NULL_STRING);
+            return;
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    static String getString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[Short.toUnsignedInt(length)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Makes sure the buffer (in read mode) has at least {@code needed} bytes, growing it for a large record.
+     */
+    private static ByteBuffer fill(FileChannel channel, ByteBuffer buffer, int needed) throws IOException {
+        if (buffer.remaining() >= needed) {
+            return buffer;
+        }
+        if (buffer.capacity() < needed) {
+            buffer = ByteBuffer.allocate(needed).put(buffer);
+        } else {
+            buffer.compact();
+        }
+        while (buffer.position() < needed) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Hero file is truncated");
+            }
+        }
+        return buffer.flip();
+    }
+}
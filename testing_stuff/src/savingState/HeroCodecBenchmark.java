@@ -0,0 +1,90 @@
+package savingState;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+/**
+ * Saves and loads 1M heroes with the old ObjectOutputStream path (unbuffered, as Serialization did it,
+ * and buffered) and with {@link HeroCodec}. Note that the object stream doesn't even save the powers.
+ * Run: java savingState.HeroCodecBenchmark [heroes]
+ */
+public class HeroCodecBenchmark {
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String[] powers = {"Spider sense", "Flying", "Invisibility", "Super strength", null};
+        ArrayList<Hero> heroes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Power power = powers[i % powers.length] != null ? new Power(powers[i % powers.length]) : null;
+            heroes.add(new SomeGameHero("Hero " + i, power));
+        }
+        Path dir = Files.createTempDirectory("heroes");
+        Path ser = dir.resolve("heroes.ser");
+        Path dat = dir.resolve("heroes.dat");
+
+        for (int run = 0; run < 2; run++) {
+            long start = System.nanoTime();
+            try (OutputStream out = Files.newOutputStream(ser)) {
+                writeObjects(out, heroes);
+            }
+            long writeNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            int read;
+            try (InputStream in = Files.newInputStream(ser)) {
+                read = readObjects(in, count);
+            }
+            report("object stream", writeNanos, System.nanoTime() - start, read, Files.size(ser));
+
+            start = System.nanoTime();
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(ser))) {
+                writeObjects(out, heroes);
+            }
+            writeNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(ser))) {
+                read = readObjects(in, count);
+            }
+            report("object stream, buffered", writeNanos, System.nanoTime() - start, read, Files.size(ser));
+
+            start = System.nanoTime();
+            HeroCodec.write(dat, heroes);
+            writeNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            read = HeroCodec.read(dat).size();
+            report("HeroCodec", writeNanos, System.nanoTime() - start, read, Files.size(dat));
+        }
+        Files.delete(ser);
+        Files.delete(dat);
+        Files.delete(dir);
+    }
+
+    private static void writeObjects(OutputStream out, ArrayList<Hero> heroes) throws IOException {
+        ObjectOutputStream obj = new ObjectOutputStream(out);
+        for (Hero hero : heroes) {
+            obj.writeObject(hero);
+        }
+        obj.flush();
+    }
+
+    private static int readObjects(InputStream in, int count) throws IOException, ClassNotFoundException {
+        ObjectInputStream obj = new ObjectInputStream(in);
+        int read = 0;
+        for (int i = 0; i < count; i++) {
+            obj.readObject();
+            read++;
+        }
+        return read;
+    }
+
+    private static void report(String path, long writeNanos, long readNanos, int read, long bytes) {
+        System.out.printf("%-24s write %,6d ms  read %,6d ms  %,d heroes  %,d bytes%n",
+                path, writeNanos / 1_000_000, readNanos / 1_000_000, read, bytes);
+    }
+}
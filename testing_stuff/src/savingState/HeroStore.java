@@ -0,0 +1,487 @@
+package savingState;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * Persistent hero store for save files that are too big to load. Heroes are appended to a data file in the
+ * {@link HeroCodec} record format, and an {@link OffsetIndex} maps every name to the position of its latest
+ * record, so a lookup is one hash probe plus one positional read. Updates append a new record and deletes
+ * append a tombstone; the old records become garbage, which a background compaction drops once there is more
+ * garbage than live data. Opening a store scans the file once to rebuild the index (a record cut off by a
+ * crash is truncated away).
+ * <pre>
+ * file:      magic "HSTR" | u16 schema version | records...
+ * record:    i32 body length | HeroCodec body
+ * tombstone: i32 -(2 + name bytes) | string name
+ * </pre>
+ * Thread-safe: lookups run in parallel, writes are serialized.
+ */
+final class HeroStore implements Closeable {
+    static final int MAGIC = 0x48535452; // "HSTR"
+    static final short SCHEMA_VERSION = 1;
+    static final int HEADER_SIZE = 4 + 2;
+    static final long DEFAULT_MIN_GARBAGE = 64L << 20;
+    private static final int SCAN_BUFFER_SIZE = 1 << 20;
+    private static final int FIRST_READ = 256;
+
+    private final Path file;
+    private final long minGarbageBytes;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock compaction = new ReentrantLock();
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hero-store-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /** Replaced as a whole by compaction, guarded by {@link #lock}. */
+    private Segment segment;
+
+    /**
+     * One data file with its index. Live and garbage bytes count whole records, length prefix included.
+     */
+    private static final class Segment {
+        final FileChannel channel;
+        final OffsetIndex index;
+        long end = HEADER_SIZE;
+        long liveBytes;
+        long garbageBytes;
+
+        Segment(FileChannel channel, int expectedSize) {
+            this.channel = channel;
+            this.index = new OffsetIndex(expectedSize);
+        }
+    }
+
+    private HeroStore(Path file, long minGarbageBytes, Segment segment) {
+        this.file = file;
+        this.minGarbageBytes = minGarbageBytes;
+        this.segment = segment;
+    }
+
+    public static HeroStore open(Path file) throws IOException {
+        return open(file, DEFAULT_MIN_GARBAGE);
+    }
+
+    /**
+     * @param minGarbageBytes compaction starts only when there's more garbage than this (and than live data)
+     */
+    public static HeroStore open(Path file, long minGarbageBytes) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            Segment segment = new Segment(channel, 1024);
+            if (channel.size() == 0) {
+                writeHeader(channel);
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                readFully(channel, header, 0);
+                if (header.flip().getInt() != MAGIC) {
+                    throw new IOException("Not a hero store: " + file);
+                }
+                short version = header.getShort();
+                if (version != SCHEMA_VERSION) {
+                    throw new IOException("Unsupported hero store version " + version);
+                }
+                replay(segment, channel, HEADER_SIZE, channel.size(), null);
+                if (segment.end < channel.size()) {
+                    channel.truncate(segment.end);
+                }
+            }
+            return new HeroStore(file, minGarbageBytes, segment);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the hero with that name, or null
+     */
+    public Hero get(String name) throws IOException {
+        lock.readLock().lock();
+        try {
+            long offset = segment.index.get(name.hashCode(), sameName(segment.channel, name));
+            if (offset == OffsetIndex.MISSING) {
+                return null;
+            }
+            ByteBuffer body = readBody(segment.channel, offset);
+            return HeroCodec.decodeBody(body);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the hero, or replaces the one with the same name.
+     */
+    public void put(Hero hero) throws IOException {
+        if (hero.name == null) {
+            throw new IllegalArgumentException("A stored hero needs a name");
+        }
+        ByteBuffer record = ByteBuffer.allocate(HeroCodec.recordSize(hero));
+        HeroCodec.encode(record, hero);
+        lock.writeLock().lock();
+        try {
+            Segment s = segment;
+            long offset = append(s, record.flip());
+            long previous = s.index.put(hero.name.hashCode(), offset, sameName(s.channel, hero.name));
+            s.liveBytes += record.limit();
+            if (previous != OffsetIndex.MISSING) {
+                retire(s, previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        maybeCompact();
+    }
+
+    /**
+     * @return false if there was no hero with that name
+     */
+    public boolean delete(String name) throws IOException {
+        byte[] bytes = HeroCodec.utf8(name);
+        ByteBuffer tombstone = ByteBuffer.allocate(4 + 2 + bytes.length);
+        tombstone.putInt(-(2 + bytes.length));
+        HeroCodec.putString(tombstone, bytes);
+        lock.writeLock().lock();
+        try {
+            Segment s = segment;
+            long previous = s.index.remove(name.hashCode(), sameName(s.channel, name));
+            if (previous == OffsetIndex.MISSING) {
+                return false;
+            }
+            append(s, tombstone.flip());
+            s.garbageBytes += tombstone.limit();
+            retire(s, previous);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        maybeCompact();
+        return true;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return segment.index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Size of the data file, garbage included.
+     */
+    public long fileSize() {
+        lock.readLock().lock();
+        try {
+            return segment.end;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rewrites the data file with only the live records. Lookups and writes go on while the records are
+     * copied; only the final step (copying what was appended meanwhile and switching files) blocks them.
+     * If a background compaction is running, waits for it first.
+     */
+    public void compact() throws IOException {
+        compaction.lock();
+        try {
+            rewrite();
+        } finally {
+            compaction.unlock();
+        }
+    }
+
+    private void rewrite() throws IOException {
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        boolean switched = false;
+        try {
+            Segment old;
+            long copiedUpTo;
+            long[] live;
+            lock.readLock().lock();
+            try {
+                old = segment;
+                copiedUpTo = old.end;
+                live = new long[old.index.size()];
+                int[] count = {0};
+                old.index.forEach(offset -> live[count[0]++] = offset);
+            } finally {
+                lock.readLock().unlock();
+            }
+            // in file order, so the old file is read sequentially
+            Arrays.sort(live);
+
+            writeHeader(out);
+            Segment next = new Segment(out, live.length);
+            copyLive(old.channel, live, copiedUpTo, next);
+
+            lock.writeLock().lock();
+            try {
+                // whatever was written during the copy, tombstones included, so the new file stays replayable
+                replay(next, old.channel, copiedUpTo, old.end, out);
+                out.force(false);
+                Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                segment = next;
+                switched = true;
+                old.channel.close();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            if (!switched) {
+                out.close();
+                Files.deleteIfExists(compacted);
+            }
+        }
+    }
+
+    /**
+     * Waits for a running compaction and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.writeLock().lock();
+        try {
+            segment.channel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void maybeCompact() {
+        Segment s;
+        lock.readLock().lock();
+        try {
+            s = segment;
+            if (s.garbageBytes < minGarbageBytes || s.garbageBytes <= s.liveBytes) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        // the flag is taken here, so a burst of writes schedules one compaction and not one per write
+        if (!compactionScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        compactor.execute(() -> {
+            try {
+                compact();
+            } catch (IOException e) {
+                e.printStackTrace();
+            } finally {
+                compactionScheduled.set(false);
+            }
+        });
+    }
+
+    private static void writeHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putShort(SCHEMA_VERSION).flip();
+        writeFully(channel, header, 0);
+    }
+
+    private static long append(Segment s, ByteBuffer record) throws IOException {
+        long offset = s.end;
+        writeFully(s.channel, record, offset);
+        s.end += record.limit();
+        return offset;
+    }
+
+    /**
+     * Counts the record at {@code offset} as garbage.
+     */
+    private static void retire(Segment s, long offset) throws IOException {
+        int size = 4 + Math.abs(readLength(s.channel, offset));
+        s.liveBytes -= size;
+        s.garbageBytes += size;
+    }
+
+    /**
+     * Appends the records at the (sorted) offsets of {@code from} to the segment. Reads and writes go through
+     * 1 MB buffers, and the names are known to be distinct, so the index never has to read a name back.
+     */
+    private static void copyLive(FileChannel from, long[] offsets, long end, Segment to) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(SCAN_BUFFER_SIZE).flip();
+        long windowStart = 0;
+        ByteBuffer pending = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        for (long offset : offsets) {
+            if (offset < windowStart || offset + 4 > windowStart + window.limit()) {
+                window = refill(from, window, offset, end, 4);
+                windowStart = offset;
+            }
+            int size = 4 + window.getInt((int) (offset - windowStart));
+            if (offset + size > windowStart + window.limit()) {
+                window = refill(from, window, offset, end, size);
+                windowStart = offset;
+            }
+            ByteBuffer record = window.slice((int) (offset - windowStart), size);
+            String name = nameOf(record.duplicate().position(4), true);
+            if (pending.remaining() < size) {
+                flush(to.channel, pending, to.end - pending.position());
+                if (pending.capacity() < size) {
+                    pending = ByteBuffer.allocate(size);
+                }
+            }
+            pending.put(record);
+            to.index.put(name.hashCode(), to.end, other -> false);
+            to.end += size;
+            to.liveBytes += size;
+        }
+        flush(to.channel, pending, to.end - pending.position());
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer pending, long position) throws IOException {
+        writeFully(channel, pending.flip(), position);
+        pending.clear();
+    }
+
+    /**
+     * Applies the records of {@code from} between two offsets to the segment, as if they were written to it.
+     * With {@code copyTo} null the records are already in the segment's own file (opening a store), otherwise
+     * they are appended to {@code copyTo}. Stops at a record that is cut off.
+     */
+    private static void replay(Segment s, FileChannel from, long start, long end, FileChannel copyTo) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE).flip();
+        long position = start;
+        while (position + 4 <= end) {
+            if (buffer.remaining() < 4) {
+                buffer = refill(from, buffer, position, end, 4);
+            }
+            int length = buffer.getInt(buffer.position());
+            int size = 4 + Math.abs(length);
+            if (position + size > end) {
+                break;
+            }
+            if (buffer.remaining() < size) {
+                buffer = refill(from, buffer, position, end, size);
+            }
+            ByteBuffer record = buffer.slice(buffer.position(), size);
+            buffer.position(buffer.position() + size);
+
+            long offset = copyTo == null ? position : s.end;
+            if (copyTo != null) {
+                writeFully(copyTo, record.duplicate(), offset);
+            }
+            s.end = offset + size;
+            String name = nameOf(record.position(4), length >= 0);
+            if (length >= 0) {
+                long previous = s.index.put(name.hashCode(), offset, sameName(s.channel, name));
+                s.liveBytes += size;
+                if (previous != OffsetIndex.MISSING) {
+                    retire(s, previous);
+                }
+            } else {
+                long previous = s.index.remove(name.hashCode(), sameName(s.channel, name));
+                s.garbageBytes += size;
+                if (previous != OffsetIndex.MISSING) {
+                    retire(s, previous);
+                }
+            }
+            position += size;
+        }
+    }
+
+    /**
+     * Reads the file from {@code position} into the buffer, at least {@code needed} bytes.
+     */
+    private static ByteBuffer refill(FileChannel from, ByteBuffer buffer, long position, long end, int needed)
+            throws IOException {
+        if (buffer.capacity() < needed) {
+            buffer = ByteBuffer.allocate(needed);
+        }
+        buffer.clear();
+        buffer.limit((int) Math.min(buffer.capacity(), end - position));
+        readFully(from, buffer, position);
+        return buffer.flip();
+    }
+
+    private static LongPredicate sameName(FileChannel channel, String name) {
+        return offset -> {
+            try {
+                return name.equals(nameOf(readBody(channel, offset), true));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    /**
+     * Name in a record body (hero) or tombstone body, without decoding the rest.
+     */
+    private static String nameOf(ByteBuffer body, boolean hero) {
+        if (hero) {
+            body.position(body.position() + 2);
+        }
+        return HeroCodec.getString(body);
+    }
+
+    private static int readLength(FileChannel channel, long offset) throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(4);
+        readFully(channel, length, offset);
+        return length.flip().getInt();
+    }
+
+    /**
+     * Positional read of one record body; most records fit into the first read.
+     */
+    private static ByteBuffer readBody(FileChannel channel, long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(FIRST_READ);
+        int read = channel.read(buffer, offset);
+        if (read < 4) {
+            buffer = ByteBuffer.allocate(4);
+            readFully(channel, buffer, offset);
+        }
+        int length = Math.abs(buffer.getInt(0));
+        if (buffer.position() >= 4 + length) {
+            return buffer.limit(4 + length).position(4);
+        }
+        ByteBuffer body = ByteBuffer.allocate(length);
+        readFully(channel, body, offset + 4);
+        return body.flip();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Hero store is truncated");
+            }
+            position += read;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package savingState;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Fills a {@link HeroStore}, looks heroes up at random, updates and deletes enough of them to trigger
+ * compaction, then reopens the file and checks every hero. Pass a bigger count for a multi-GB file.
+ * Run: java savingState.HeroStoreBenchmark [heroes] [dir]
+ */
+public class HeroStoreBenchmark {
+    private static final String[] POWERS = {"Spider sense", "Flying", "Invisibility", "Super strength"};
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        Path dir = args.length > 1 ? Path.of(args[1]) : Path.of(System.getProperty("java.io.tmpdir"));
+        Path file = Files.createTempFile(dir, "heroes", ".store");
+        Files.delete(file);
+        SplittableRandom random = new SplittableRandom(1);
+
+        try (HeroStore store = HeroStore.open(file, 8 << 20)) {
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                store.put(hero(i, 0));
+            }
+            report("put", count, start);
+            System.out.printf("file: %,d bytes%n", store.fileSize());
+
+            int lookups = Math.min(count, 1_000_000);
+            start = System.nanoTime();
+            for (int i = 0; i < lookups; i++) {
+                int id = random.nextInt(count);
+                if (!((SomeGameHero) store.get("Hero " + id)).powerType.getType().equals(power(id, 0))) {
+                    throw new AssertionError("Wrong hero " + id);
+                }
+            }
+            report("random get", lookups, start);
+
+            // every hero updated once, every tenth one deleted: more garbage than live data, compaction kicks in
+            start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                if (i % 10 == 0) {
+                    store.delete("Hero " + i);
+                } else {
+                    store.put(hero(i, 1));
+                }
+            }
+            report("update/delete", count, start);
+            System.out.printf("file: %,d bytes%n", store.fileSize());
+
+            start = System.nanoTime();
+            store.compact();
+            report("compact", store.size(), start);
+        }
+
+        long start = System.nanoTime();
+        try (HeroStore store = HeroStore.open(file)) {
+            report("reopen", count, start);
+            System.out.printf("file: %,d bytes, %,d heroes%n", store.fileSize(), store.size());
+            for (int i = 0; i < count; i++) {
+                Hero hero = store.get("Hero " + i);
+                boolean ok = i % 10 == 0 ? hero == null
+                        : hero != null && ((SomeGameHero) hero).powerType.getType().equals(power(i, 1));
+                if (!ok) {
+                    throw new AssertionError("Hero " + i + " is wrong after reopening");
+                }
+            }
+            System.out.println("all heroes verified");
+        }
+        Files.delete(file);
+    }
+
+    private static SomeGameHero hero(int id, int version) {
+        return new SomeGameHero("Hero " + id, new Power(power(id, version)));
+    }
+
+    private static String power(int id, int version) {
+        return POWERS[(id + version) % POWERS.length] + " v" + version;
+    }
+
+    private static void report(String what, int operations, long start) {
+        long nanos = System.nanoTime() - start;
+        System.out.printf("%-14s %,10d ops %,8d ms %,8d ns/op%n", what, operations, nanos / 1_000_000, nanos / operations);
+    }
+}
@@ -0,0 +1,121 @@
+package savingState;
+
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+
+/**
+ * Open-addressing hash index from a key to a file offset, kept in two primitive arrays (12 bytes a slot).
+ * The keys themselves are not stored: a slot only holds the key's hash and the offset of its record, and a
+ * hash match is confirmed by the caller's {@code sameKey} test, which reads the key at that offset.
+ * Linear probing, removal by backward shift, so there are no tombstones in the table.
+ * Offset 0 marks an empty slot, which is fine because every file starts with a header. Not thread-safe.
+ */
+final class OffsetIndex {
+    static final long MISSING = -1;
+
+    private int[] hashes;
+    private long[] offsets;
+    private int mask;
+    private int size;
+
+    OffsetIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        hashes = new int[capacity];
+        offsets = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long get(int hash, LongPredicate sameKey) {
+        for (int slot = home(hash); offsets[slot] != 0; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && sameKey.test(offsets[slot])) {
+                return offsets[slot];
+            }
+        }
+        return MISSING;
+    }
+
+    /**
+     * @return the offset the key had before, or {@link #MISSING}
+     */
+    long put(int hash, long offset, LongPredicate sameKey) {
+        int slot = home(hash);
+        for (; offsets[slot] != 0; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && sameKey.test(offsets[slot])) {
+                long previous = offsets[slot];
+                offsets[slot] = offset;
+                return previous;
+            }
+        }
+        hashes[slot] = hash;
+        offsets[slot] = offset;
+        if (++size * 2 > offsets.length) {
+            resize();
+        }
+        return MISSING;
+    }
+
+    /**
+     * @return the offset the key had, or {@link #MISSING}
+     */
+    long remove(int hash, LongPredicate sameKey) {
+        for (int slot = home(hash); offsets[slot] != 0; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && sameKey.test(offsets[slot])) {
+                long previous = offsets[slot];
+                shiftBack(slot);
+                size--;
+                return previous;
+            }
+        }
+        return MISSING;
+    }
+
+    void forEach(LongConsumer offset) {
+        for (long o : offsets) {
+            if (o != 0) {
+                offset.accept(o);
+            }
+        }
+    }
+
+    private void shiftBack(int hole) {
+        offsets[hole] = 0;
+        for (int slot = (hole + 1) & mask; offsets[slot] != 0; slot = (slot + 1) & mask) {
+            int home = home(hashes[slot]);
+            // the entry can fill the hole unless its home lies cyclically in (hole, slot]
+            boolean staysPut = hole <= slot ? hole < home && home <= slot : hole < home || home <= slot;
+            if (!staysPut) {
+                hashes[hole] = hashes[slot];
+                offsets[hole] = offsets[slot];
+                offsets[slot] = 0;
+                hole = slot;
+            }
+        }
+    }
+
+    private void resize() {
+        int[] oldHashes = hashes;
+        long[] oldOffsets = offsets;
+        hashes = new int[oldHashes.length * 2];
+        offsets = new long[oldOffsets.length * 2];
+        mask = offsets.length - 1;
+        for (int i = 0; i < oldOffsets.length; i++) {
+            if (oldOffsets[i] != 0) {
+                int slot = home(oldHashes[i]);
+                while (offsets[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                hashes[slot] = oldHashes[i];
+                offsets[slot] = oldOffsets[i];
+            }
+        }
+    }
+
+    private int home(int hash) {
+        int h = hash * 0x9E3779B9;
+        return (h ^ h >>> 16) & mask;
+    }
+}
@@ -0,0 +1,13 @@
+package savingState;
+
+class Power {
+    private String type = null;
+
+    public Power(String powerType) {
+        type = powerType;
+    }
+
+    public String getType() {
+        return type;
+    }
+}
@@ -0,0 +1,10 @@
+package savingState;
+
+class SomeGameHero extends Hero {
+    transient Power powerType = null;
+
+    public SomeGameHero(String name, Power power) {
+        this.name = name;
+        powerType = power;
+    }
+}
@@ -14,70 +14,33 @@ public class TestSaving {
         serialization.serializeHeroes(heroes);
         ArrayList<Hero> deserializeHeroes = serialization.deserializeHeroes();
         for (Hero hero : deserializeHeroes) {
-            System.out.println(hero.name);
+            Power power = ((SomeGameHero) hero).powerType;
+            System.out.println(hero.name + (power != null ? " - " + power.getType() : ""));
         }
     }
 }
 
 class Serialization {
-    private boolean serialized = false;
-    private int serializedObjectsCount;
+    private final Path filePath = Paths.get(System.getProperty("user.dir"), "data", "SuperHeroes.dat");
 
     public void serializeHeroes(ArrayList<Hero> heroes) {
         try {
-            Path filePath = Paths.get(System.getProperty("user.dir"), "data", "SuperHeroes.ser");
-            FileOutputStream file = new FileOutputStream(filePath.toAbsolutePath().toString());
-            ObjectOutputStream obj = new ObjectOutputStream(file);
-            for (Hero hero : heroes) {
-                obj.writeObject(hero);
-            }
-            serializedObjectsCount = heroes.size();
-            serialized = true;
-            obj.close();
+            HeroCodec.write(filePath, heroes);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Reads whatever the last serializeHeroes wrote, also from an earlier run: the count is in the file header.
+     */
     public ArrayList<Hero> deserializeHeroes() {
-        if (!serialized) {
-            throw new Error("You must serialize objects before deserialize them");
-        }
-        ArrayList<Hero> heroes = new ArrayList<>();
         try {
-            Path filePath = Paths.get(System.getProperty("user.dir"), "data", "SuperHeroes.ser");
-            FileInputStream fileStream = new FileInputStream((filePath.toAbsolutePath().toString()));
-            ObjectInputStream objStream = new ObjectInputStream(fileStream);
-            for (int i = 0; i < serializedObjectsCount; i++) {
-                heroes.add((Hero) objStream.readObject());
-            }
-            objStream.close();
-        } catch (IOException | ClassNotFoundException e) {
+            return HeroCodec.read(filePath);
+        } catch (IOException e) {
             e.printStackTrace();
         }
-        return heroes;
+        return new ArrayList<>();
     }
 }
 
-
-class SomeGameHero extends Hero {
-    transient Power powerType = null;
-
-    public SomeGameHero(String name, Power power) {
-        this.name = name;
-        powerType = power;
-    }
-}
-
-abstract class Hero implements Serializable {
-    boolean superPower = true;
-    String name;
-}
-
-class Power {
-    private String type = null;
-
-    public Power(String powerType) {
-        type = powerType;
-    }
-}
@@ -1,12 +1,19 @@
 package src.threads;
 
+import threads.Ledger;
+import threads.Logger;
+
 public class BankAccount1 {
-    private int balance = 100;
+    // one-account ledger: the check and the withdraw are a single atomic step
+    private final Ledger ledger = new Ledger(1, 100);
     public int getBalance() {
-        return balance;
+        return (int) ledger.balance(0);
     }
-    public void withdraw(int amount) {
-        balance = balance - amount;
+    /**
+     * @return false if there isn't enough money, the balance never goes below zero
+     */
+    public boolean withdraw(int amount) {
+        return ledger.withdraw(0, amount);
     }
 }
 class RyanAndMonicaJob implements Runnable {
@@ -29,18 +36,12 @@ class RyanAndMonicaJob implements Runnable {
         }
     }
     private void makeWithdrawal(int amount) {
-        if (account.getBalance() >= amount) {
-            System.out.println(Thread.currentThread().getName() + " is about to withdraw");
-            try {
-                System.out.println(Thread.currentThread().getName() + " is going to sleep");
-                Thread.sleep(500);
-            } catch(InterruptedException ex) {ex.printStackTrace(); }
-            System.out.println(Thread.currentThread().getName() + " woke up.");
-            account.withdraw(amount);
-            System.out.println(Thread.currentThread().getName() + " completes the withdrawl");
+        // no "check balance, sleep, withdraw" window anymore: the ledger rejects an overdraft atomically
+        if (account.withdraw(amount)) {
+            Logger.log("completes the withdrawl, balance is " + account.getBalance());
         }
         else {
-            System.out.println("Sorry, not enough for " + Thread.currentThread().getName());
+            Logger.log("Sorry, not enough money");
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,182 @@
+package threads;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free ledger of accounts, amounts are whole units (e.g. cents).
+ * Every change is a compare-and-set on the balance it touches, so there is no check-then-act window:
+ * a withdrawal either sees enough money and takes it in the same step, or it is rejected.
+ * <p>
+ * Hot accounts are split into several shards, each on its own cache line, so threads hitting the same
+ * account mostly update different memory. A withdrawal from a sharded account first looks for one shard
+ * that covers all of it, starting with the shard of the current thread, and takes it in one CAS. Only if
+ * no shard does, it locks the account and collects the amount from several shards. Money taken from
+ * some shards but not yet enough is only ever held under that lock, so two withdrawals can't each hold a
+ * part, both come up short and both be rejected while the balance covers one of them.
+ */
+public class Ledger {
+    /** 8 longs = 64 bytes, one shard per cache line. */
+    private static final int PAD = 8;
+
+    private final AtomicLongArray cells;
+    private final int[] firstShard;
+    private final int[] shardCount;
+    /** only sharded accounts have one, for withdrawals that need several shards */
+    private final Object[] collectLocks;
+
+    /**
+     * @param accounts       number of accounts, numbered from 0
+     * @param initialBalance starting balance of every account
+     * @param hotAccounts    accounts that get {@code hotShards} shards instead of one
+     * @param hotShards      shard count of a hot account
+     */
+    public Ledger(int accounts, long initialBalance, Set<Integer> hotAccounts, int hotShards) {
+        if (accounts <= 0 || initialBalance < 0 || hotShards <= 0) {
+            throw new IllegalArgumentException("accounts and hotShards must be positive, initialBalance not negative");
+        }
+        firstShard = new int[accounts];
+        shardCount = new int[accounts];
+        collectLocks = new Object[accounts];
+        int shards = 0;
+        for (int account = 0; account < accounts; account++) {
+            firstShard[account] = shards;
+            shardCount[account] = hotAccounts.contains(account) ? hotShards : 1;
+            shards += shardCount[account];
+            if (shardCount[account] > 1) {
+                collectLocks[account] = new Object();
+            }
+        }
+        cells = new AtomicLongArray(shards * PAD);
+        for (int account = 0; account < accounts; account++) {
+            int count = shardCount[account];
+            for (int shard = 0; shard < count; shard++) {
+                // spread the initial balance, the first shard takes the remainder
+                long part = initialBalance / count + (shard == 0 ? initialBalance % count : 0);
+                cells.set(cell(account, shard), part);
+            }
+        }
+    }
+
+    public Ledger(int accounts, long initialBalance) {
+        this(accounts, initialBalance, Set.of(), 1);
+    }
+
+    public int size() {
+        return firstShard.length;
+    }
+
+    public void deposit(int account, long amount) {
+        checkAmount(amount);
+        cells.getAndAdd(cell(account, homeShard(account)), amount);
+    }
+
+    /**
+     * Takes {@code amount} from the account if it has that much.
+     *
+     * @return false if the balance would go below zero, the account is then left unchanged
+     */
+    public boolean withdraw(int account, long amount) {
+        checkAmount(amount);
+        int count = shardCount[account];
+        int home = homeShard(account);
+        for (int i = 0; i < count; i++) {
+            if (takeUpTo(cell(account, (home + i) % count), amount, true) == amount) {
+                return true;
+            }
+        }
+        return count > 1 && collect(account, home, amount);
+    }
+
+    /**
+     * Slow path of a sharded withdrawal: takes what it can from shard after shard, again and again while
+     * deposits keep coming in. Rejects only after a whole pass found every shard empty.
+     */
+    private boolean collect(int account, int home, long amount) {
+        int count = shardCount[account];
+        synchronized (collectLocks[account]) {
+            long remaining = amount;
+            boolean progress = true;
+            while (remaining > 0 && progress) {
+                progress = false;
+                for (int i = 0; i < count && remaining > 0; i++) {
+                    long taken = takeUpTo(cell(account, (home + i) % count), remaining, false);
+                    remaining -= taken;
+                    progress |= taken > 0;
+                }
+            }
+            if (remaining > 0) {
+                if (remaining < amount) {
+                    cells.getAndAdd(cell(account, home), amount - remaining);
+                }
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Moves money between two accounts. The amount is taken from {@code from} before it is added to
+     * {@code to}, so it is never counted twice but can be briefly missing from {@link #totalBalance()}.
+     *
+     * @return false if {@code from} doesn't have enough money
+     */
+    public boolean transfer(int from, int to, long amount) {
+        if (!withdraw(from, amount)) {
+            return false;
+        }
+        deposit(to, amount);
+        return true;
+    }
+
+    /**
+     * Sum of the account's shards. Exact when nobody is changing the account, otherwise a value
+     * the balance had at some point during the call.
+     */
+    public long balance(int account) {
+        long sum = 0;
+        for (int shard = 0; shard < shardCount[account]; shard++) {
+            sum += cells.get(cell(account, shard));
+        }
+        return sum;
+    }
+
+    public long totalBalance() {
+        long sum = 0;
+        for (int account = 0; account < size(); account++) {
+            sum += balance(account);
+        }
+        return sum;
+    }
+
+    /**
+     * CAS loop taking as much of {@code wanted} as the shard holds (all or nothing if {@code exact}).
+     */
+    private long takeUpTo(int cell, long wanted, boolean exact) {
+        while (true) {
+            long current = cells.get(cell);
+            long taken = Math.min(current, wanted);
+            if (taken <= 0 || (exact && taken < wanted)) {
+                return 0;
+            }
+            if (cells.compareAndSet(cell, current, current - taken)) {
+                return taken;
+            }
+        }
+    }
+
+    private int cell(int account, int shard) {
+        return (firstShard[account] + shard) * PAD;
+    }
+
+    private int homeShard(int account) {
+        int count = shardCount[account];
+        return count == 1 ? 0 : (int) (Thread.currentThread().getId() % count);
+    }
+
+    private static void checkAmount(long amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("amount must be positive: " + amount);
+        }
+    }
+}
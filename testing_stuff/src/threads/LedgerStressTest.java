@@ -0,0 +1,204 @@
+package threads;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Set;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hammers a {@link Ledger} from many threads and checks that no update got lost: every thread adds up
+ * what it deposited and what it withdrew, and at the end the ledger total must match exactly and no
+ * balance may be negative. Then races two withdrawals that only one balance can cover on a sharded
+ * account, exactly one must win, and checks that the async {@link Logger} accounts for every line.
+ * Run: java threads.LedgerStressTest [threads] [seconds]
+ */
+public class LedgerStressTest {
+    private static final int ACCOUNTS = 1_000;
+    private static final long INITIAL_BALANCE = 10_000;
+    private static final int HOT_ACCOUNT = 0;
+    private static final int HOT_SHARDS = 16;
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        boolean ok = stressLedger(threads, seconds);
+        ok &= raceWithdrawals(20_000);
+        ok &= stressLogger(threads, 200_000);
+        System.out.println(ok ? "PASSED" : "FAILED");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean stressLedger(int threads, int seconds) throws InterruptedException {
+        Ledger ledger = new Ledger(ACCOUNTS, INITIAL_BALANCE, Set.of(HOT_ACCOUNT), HOT_SHARDS);
+        AtomicBoolean running = new AtomicBoolean(true);
+        long[][] results = new long[threads][];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            workers[t] = new Thread(() -> results[id] = work(ledger, running));
+            workers[t].start();
+        }
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        long ops = 0, deposited = 0, withdrawn = 0, rejected = 0;
+        for (int t = 0; t < threads; t++) {
+            workers[t].join();
+            ops += results[t][0];
+            deposited += results[t][1];
+            withdrawn += results[t][2];
+            rejected += results[t][3];
+        }
+
+        long expected = ACCOUNTS * INITIAL_BALANCE + deposited - withdrawn;
+        long actual = ledger.totalBalance();
+        int negative = 0;
+        for (int account = 0; account < ACCOUNTS; account++) {
+            if (ledger.balance(account) < 0) {
+                negative++;
+            }
+        }
+        System.out.printf("ledger: %d threads, %,d ops in %d s = %,d ops/s, %,d withdrawals rejected%n",
+                threads, ops, seconds, ops / seconds, rejected);
+        System.out.printf("ledger: expected total %,d, actual %,d, hot account %,d, negative balances %d%n",
+                expected, actual, ledger.balance(HOT_ACCOUNT), negative);
+        return expected == actual && negative == 0;
+    }
+
+    /**
+     * Two threads withdraw 60 each from a balance of 100 spread over 8 shards, so neither finds one shard
+     * that covers it. One of them must get the money every round, a rejection of both is a spurious one.
+     */
+    private static boolean raceWithdrawals(int rounds) throws InterruptedException {
+        Ledger[] ledger = new Ledger[1];
+        boolean[] won = new boolean[2];
+        CyclicBarrier start = new CyclicBarrier(3);
+        CyclicBarrier done = new CyclicBarrier(3);
+        Thread[] racers = new Thread[2];
+        for (int t = 0; t < 2; t++) {
+            int id = t;
+            racers[t] = new Thread(() -> {
+                try {
+                    for (int round = 0; round < rounds; round++) {
+                        start.await();
+                        won[id] = ledger[0].withdraw(0, 60);
+                        done.await();
+                    }
+                } catch (InterruptedException | BrokenBarrierException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            racers[t].start();
+        }
+        int bothRejected = 0, bothWon = 0;
+        try {
+            for (int round = 0; round < rounds; round++) {
+                ledger[0] = new Ledger(1, 100, Set.of(0), 8);
+                start.await();
+                done.await();
+                if (!won[0] && !won[1]) {
+                    bothRejected++;
+                } else if (won[0] && won[1]) {
+                    bothWon++;
+                }
+            }
+        } catch (BrokenBarrierException e) {
+            throw new IllegalStateException(e);
+        }
+        for (Thread racer : racers) {
+            racer.join();
+        }
+        System.out.printf("ledger: %,d withdrawal races, both rejected %d, both won %d%n", rounds, bothRejected, bothWon);
+        return bothRejected == 0 && bothWon == 0;
+    }
+
+    /**
+     * Mix of deposits, withdrawals and transfers; every fourth operation goes to the hot account,
+     * and withdrawals are large enough that some of them are rejected.
+     *
+     * @return ops, amount deposited, amount withdrawn, rejected withdrawals
+     */
+    private static long[] work(Ledger ledger, AtomicBoolean running) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long ops = 0, deposited = 0, withdrawn = 0, rejected = 0;
+        while (running.get()) {
+            // check the flag only every 1024 ops, it's a shared cache line too
+            for (int i = 0; i < 1024; i++) {
+                int account = (i & 3) == 0 ? HOT_ACCOUNT : random.nextInt(ACCOUNTS);
+                long amount = 1 + random.nextInt(2 * (int) INITIAL_BALANCE);
+                switch (random.nextInt(3)) {
+                    case 0 -> {
+                        ledger.deposit(account, amount);
+                        deposited += amount;
+                    }
+                    case 1 -> {
+                        if (ledger.withdraw(account, amount)) {
+                            withdrawn += amount;
+                        } else {
+                            rejected++;
+                        }
+                    }
+                    default -> {
+                        if (!ledger.transfer(account, random.nextInt(ACCOUNTS), amount)) {
+                            rejected++;
+                        }
+                    }
+                }
+            }
+            ops += 1024;
+        }
+        return new long[]{ops, deposited, withdrawn, rejected};
+    }
+
+    private static boolean stressLogger(int threads, int linesPerThread) throws InterruptedException {
+        PrintStream console = System.out;
+        CountingStream counter = new CountingStream();
+        System.setOut(new PrintStream(counter, false));
+        long start = System.nanoTime();
+        try {
+            Thread[] loggers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                loggers[t] = new Thread(() -> {
+                    for (int i = 0; i < linesPerThread; i++) {
+                        Logger.log("line " + i);
+                    }
+                });
+                loggers[t].start();
+            }
+            for (Thread logger : loggers) {
+                logger.join();
+            }
+            Logger.flush();
+        } finally {
+            System.setOut(console);
+        }
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        long logged = (long) threads * linesPerThread;
+        System.out.printf("logger: %,d lines in %d ms, %,d printed, %,d dropped%n",
+                logged, millis, counter.lines, Logger.dropped());
+        return counter.lines + Logger.dropped() == logged;
+    }
+
+    private static class CountingStream extends OutputStream {
+        long lines;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+    }
+}
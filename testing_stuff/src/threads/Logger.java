@@ -1,7 +1,97 @@
 package threads;
 
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous logger. {@link #log(String)} only puts the line into a ring buffer and returns, it never
+ * waits for the console or for other logging threads; a single daemon thread prints the lines in batches.
+ * When the ring is full the line is dropped and counted instead of blocking the caller.
+ * Lines that are still buffered when the JVM exits are printed by a shutdown hook.
+ */
 public class Logger {
+    private static final int CAPACITY = 1 << 16;
+    private static final int MAX_BATCH_CHARS = 64 * 1024;
+
+    private static final AtomicReferenceArray<String> ring = new AtomicReferenceArray<>(CAPACITY);
+    /** Next sequence a producer claims. */
+    private static final AtomicLong tail = new AtomicLong();
+    /** Next sequence the writer prints; written only by the writer thread. */
+    private static volatile long head;
+    private static volatile boolean writerParked;
+    private static final LongAdder dropped = new LongAdder();
+    private static final Thread writer;
+
+    static {
+        writer = new Thread(Logger::writeLoop, "logger-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(Logger::flush, "logger-flush"));
+    }
+
     static public void log(String message) {
-        System.out.println(Thread.currentThread().getName() + ": " + message);
+        String line = Thread.currentThread().getName() + ": " + message;
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head >= CAPACITY) {
+                dropped.increment();
+                return;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+        ring.set(index(sequence), line);
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Waits until every line logged before this call is printed (or was dropped).
+     */
+    static public void flush() {
+        long target = tail.get();
+        while (head < target && writer.isAlive()) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(100_000);
+        }
+        System.out.flush();
+    }
+
+    /**
+     * @return how many lines were dropped because the ring buffer was full
+     */
+    static public long dropped() {
+        return dropped.sum();
+    }
+
+    private static int index(long sequence) {
+        return (int) (sequence & (CAPACITY - 1));
+    }
+
+    private static void writeLoop() {
+        StringBuilder batch = new StringBuilder(MAX_BATCH_CHARS);
+        long next = head;
+        while (true) {
+            String line;
+            // a claimed slot can still be empty for a moment, its producer has not stored the line yet
+            while (batch.length() < MAX_BATCH_CHARS && (line = ring.get(index(next))) != null) {
+                ring.lazySet(index(next), null);
+                batch.append(line).append(System.lineSeparator());
+                next++;
+            }
+            if (batch.length() > 0) {
+                System.out.print(batch);
+                batch.setLength(0);
+                head = next;
+                continue;
+            }
+            writerParked = true;
+            if (ring.get(index(next)) == null) {
+                LockSupport.parkNanos(1_000_000);
+            }
+            writerParked = false;
+        }
     }
 }
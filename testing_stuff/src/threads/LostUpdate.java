@@ -17,14 +17,14 @@ public class LostUpdate {
 }
 
 class Balance {
-    private int balance;
+    private final Ledger ledger = new Ledger(1, 0);
 
     public int getBalance() {
-        return balance;
+        return (int) ledger.balance(0);
     }
 
-    public void setBalance(int balance) {
-        this.balance = balance;
+    public void deposit(int amount) {
+        ledger.deposit(0, amount);
     }
 }
 
@@ -37,15 +37,11 @@ class UpdateBalance implements Runnable {
 
     public void updateBalance(int amount) {
         // do some stuff that doesn't need to be sync
-        synchronized (this){ // without sync and you'll get balance 5 instead of 6 in the end
-            Logger.log("Going to update the balance");
-            int currentBalance = this.balance.getBalance();
-            Logger.log("Current balance is - " + currentBalance);
-            // Doing some checks
-            currentBalance += amount;
-            this.balance.setBalance(currentBalance);
-            Logger.log("Updated balance is - " + this.balance.getBalance());
-        }
+        // read-modify-write with get/set lost updates without sync (balance 5 instead of 6 in the end),
+        // the ledger adds atomically so no lock is needed
+        Logger.log("Going to update the balance");
+        this.balance.deposit(amount);
+        Logger.log("Updated balance is - " + this.balance.getBalance());
     }
 
     @Override
@@ -1,5 +1,5 @@
-//import com.fasterxml.jackson.core.JsonProcessingException;
-//
-//public interface IFunctionToRun<T> {
-//    T runFunction() throws InterruptedException, JsonProcessingException;
-//}
\ No newline at end of file
+package waiter;
+
+public interface IFunctionToRun<T> {
+    T runFunction() throws Exception;
+}
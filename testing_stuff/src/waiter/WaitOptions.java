@@ -1,6 +1,23 @@
-//public class WaitOptions {
-//    public boolean throwError = false;
-//    public int waitTime = 15000;
-//    public int waitInterval = 1000;
-//    public String errorMessage = "Unsuccessfully wait for expected condition";
-//}
+package waiter;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+public class WaitOptions {
+    public boolean throwError = false;
+    public int waitTime = 15000;
+    public int waitInterval = 1000;
+    public String errorMessage = "Unsuccessfully wait for expected condition";
+    /* Every next interval is the previous one multiplied by this, 1 keeps the interval fixed */
+    public double backoffMultiplier = 1.0;
+    public int maxWaitInterval = 10000;
+    /* Random spread of each interval, 0.2 means +-20%, so parallel waits don't poll in lockstep */
+    public double jitter = 0.0;
+
+    public long intervalForAttempt(int attempt) {
+        double interval = Math.min(waitInterval * Math.pow(backoffMultiplier, attempt), Math.max(waitInterval, maxWaitInterval));
+        if (jitter > 0) {
+            interval *= 1 + jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        }
+        return Math.max(0, Math.round(interval));
+    }
+}
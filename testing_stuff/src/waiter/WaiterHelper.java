@@ -1,33 +1,106 @@
-//import org.codehaus.jackson.JsonProcessingException;
-//import lombok.extern.slf4j.Slf4j;
-//
-///* Should help you to wait for some condition, or action. Just pass the function that will return you the actualResult,
-//* and the expectedResult that you needed. Configurable via WaitOptions */
-//
-//@Slf4j
-//public class WaiterHelper<T> {
-//    public boolean waitForCondition(IFunctionToRun<T> condition, T expectedResult, WaitOptions options) throws InterruptedException, JsonProcessingException {
-//        log.info("Start waiting for \"{}\"", expectedResult);
-//        long startTime = System.currentTimeMillis();
-//        T actualResult = null;
-//        try {
-//            do {
-//                actualResult = condition.runFunction();
-//                log.info("result of the function is \"{}\"", actualResult);
-//                if (actualResult.equals(expectedResult)) {
-//                    return true;
-//                }
-//                Thread.sleep(options.waitInterval);
-//            } while ((System.currentTimeMillis() - startTime) < options.waitTime);
-//        } catch (Exception e) {
-//            if (options.throwError) {
-//                throw new Error(options.errorMessage + " " + e.getMessage());
-//            }
-//        }
-//        if (options.throwError) {
-//            throw new Error(String.format("Couldn't get the expected result \"%s\". Actual result is \"%s\"", expectedResult, actualResult));
-//        }
-//        log.info("Silently finish the waiting. Couldn't get the expected result");
-//        return false;
-//    }
-//}
+package waiter;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/* Should help you to wait for some condition, or action. Just pass the function that will return you the actualResult,
+* and the expectedResult that you needed. Configurable via WaitOptions */
+
+public class WaiterHelper<T> {
+    private static final System.Logger log = System.getLogger(WaiterHelper.class.getName());
+    /* Only times the next attempt, the condition itself never runs on it */
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "waiter-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /* Runs the conditions; threads exist only while a condition is being checked, not between the attempts */
+    private static final ExecutorService CONDITIONS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "waiter-condition");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public boolean waitForCondition(IFunctionToRun<T> condition, T expectedResult, WaitOptions options) {
+        log.log(System.Logger.Level.INFO, "Start waiting for \"{0}\"", expectedResult);
+        long startTime = System.currentTimeMillis();
+        T actualResult = null;
+        int attempt = 0;
+        try {
+            do {
+                actualResult = condition.runFunction();
+                log.log(System.Logger.Level.DEBUG, "result of the function is \"{0}\"", actualResult);
+                if (actualResult.equals(expectedResult)) {
+                    return true;
+                }
+                Thread.sleep(options.intervalForAttempt(attempt++));
+            } while ((System.currentTimeMillis() - startTime) < options.waitTime);
+        } catch (Exception e) {
+            if (options.throwError) {
+                throw new Error(options.errorMessage + " " + e.getMessage());
+            }
+        }
+        if (options.throwError) {
+            throw new Error(String.format("Couldn't get the expected result \"%s\". Actual result is \"%s\"", expectedResult, actualResult));
+        }
+        log.log(System.Logger.Level.INFO, "Silently finish the waiting. Couldn't get the expected result");
+        return false;
+    }
+
+    /* Same as waitForCondition, but doesn't block: no thread is held between the attempts, so thousands of waits
+    * can be pending at once. The future completes with the expected result, or (throwError = false) with the last
+    * actual result after the timeout; with throwError = true it fails with the same Error the blocking version throws.
+    * Cancel the future to stop the polling. */
+    public CompletableFuture<T> waitForConditionAsync(IFunctionToRun<T> condition, T expectedResult, WaitOptions options) {
+        return waitForConditionAsync(condition, expectedResult, options, CONDITIONS);
+    }
+
+    /* Runs the condition on the given executor, e.g. Executors.newVirtualThreadPerTaskExecutor() on Java 21 */
+    public CompletableFuture<T> waitForConditionAsync(IFunctionToRun<T> condition, T expectedResult, WaitOptions options, Executor executor) {
+        log.log(System.Logger.Level.INFO, "Start waiting for \"{0}\"", expectedResult);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long deadline = System.currentTimeMillis() + options.waitTime;
+        executor.execute(() -> attempt(condition, expectedResult, options, executor, result, deadline, 0));
+        return result;
+    }
+
+    private void attempt(IFunctionToRun<T> condition, T expectedResult, WaitOptions options, Executor executor,
+                         CompletableFuture<T> result, long deadline, int attempt) {
+        if (result.isDone()) {
+            return;
+        }
+        T actualResult;
+        try {
+            actualResult = condition.runFunction();
+        } catch (Exception e) {
+            if (options.throwError) {
+                result.completeExceptionally(new Error(options.errorMessage + " " + e.getMessage()));
+            } else {
+                result.complete(null);
+            }
+            return;
+        }
+        log.log(System.Logger.Level.DEBUG, "result of the function is \"{0}\"", actualResult);
+        if (Objects.equals(actualResult, expectedResult)) {
+            result.complete(actualResult);
+            return;
+        }
+        long delay = options.intervalForAttempt(attempt);
+        if (System.currentTimeMillis() + delay >= deadline) {
+            if (options.throwError) {
+                result.completeExceptionally(new Error(String.format("Couldn't get the expected result \"%s\". Actual result is \"%s\"", expectedResult, actualResult)));
+            } else {
+                log.log(System.Logger.Level.INFO, "Silently finish the waiting. Couldn't get the expected result");
+                result.complete(actualResult);
+            }
+            return;
+        }
+        SCHEDULER.schedule(() -> executor.execute(() -> attempt(condition, expectedResult, options, executor, result, deadline, attempt + 1)),
+                delay, TimeUnit.MILLISECONDS);
+    }
+}
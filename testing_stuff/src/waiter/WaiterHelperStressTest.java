@@ -0,0 +1,113 @@
+package waiter;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Checks WaiterHelper without a real service: the conditions are counters that reach the expected value
+ * after a few polls. Runs the blocking wait, its timeouts, then many async waits at once and checks that
+ * they all finish without a thread per wait, and that a cancelled wait stops polling.
+ * Run: java waiter.WaiterHelperStressTest [async waits]
+ */
+public class WaiterHelperStressTest {
+
+    public static void main(String[] args) throws Exception {
+        int waits = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        // one INFO line per wait would drown the results
+        Logger.getLogger(WaiterHelper.class.getName()).setLevel(Level.WARNING);
+
+        boolean ok = checkBlocking();
+        ok &= checkAsync(waits);
+        ok &= checkAsyncTimeoutAndCancel();
+        System.out.println(ok ? "PASSED" : "FAILED");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean checkBlocking() {
+        WaitOptions options = new WaitOptions();
+        options.waitInterval = 10;
+        options.waitTime = 1000;
+        AtomicInteger calls = new AtomicInteger();
+        boolean found = new WaiterHelper<String>().waitForCondition(
+                () -> calls.incrementAndGet() < 3 ? "PENDING" : "DONE", "DONE", options);
+
+        options.waitTime = 100;
+        boolean timedOut = !new WaiterHelper<String>().waitForCondition(() -> "PENDING", "DONE", options);
+        options.throwError = true;
+        boolean thrown = false;
+        try {
+            new WaiterHelper<String>().waitForCondition(() -> "PENDING", "DONE", options);
+        } catch (Error e) {
+            thrown = true;
+        }
+        System.out.printf("blocking: found after %d calls, timeout returns false %b, throws with throwError %b%n",
+                calls.get(), timedOut, thrown);
+        return found && calls.get() == 3 && timedOut && thrown;
+    }
+
+    /**
+     * Every wait is ready after 1 to 5 polls, polled every 20 ms growing by half up to 200 ms, +-20%.
+     */
+    private static boolean checkAsync(int waits) {
+        WaitOptions options = new WaitOptions();
+        options.throwError = true;
+        options.waitTime = 10_000;
+        options.waitInterval = 20;
+        options.backoffMultiplier = 1.5;
+        options.maxWaitInterval = 200;
+        options.jitter = 0.2;
+
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+        ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+        long start = System.nanoTime();
+        List<CompletableFuture<Integer>> results = new ArrayList<>(waits);
+        for (int i = 0; i < waits; i++) {
+            int readyAfter = 1 + ThreadLocalRandom.current().nextInt(5);
+            AtomicInteger polls = new AtomicInteger();
+            results.add(new WaiterHelper<Integer>().waitForConditionAsync(
+                    () -> Math.min(polls.incrementAndGet(), readyAfter), readyAfter, options));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).join();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        int peak = ManagementFactory.getThreadMXBean().getPeakThreadCount() - threadsBefore;
+
+        System.out.printf("async: %,d waits in %d ms, at most %d extra threads%n", waits, millis, peak);
+        return peak < waits / 10;
+    }
+
+    private static boolean checkAsyncTimeoutAndCancel() throws InterruptedException {
+        WaitOptions options = new WaitOptions();
+        options.throwError = true;
+        options.waitTime = 100;
+        options.waitInterval = 10;
+        boolean failed = false;
+        try {
+            new WaiterHelper<String>().waitForConditionAsync(() -> "PENDING", "DONE", options).join();
+        } catch (CompletionException e) {
+            failed = e.getCause() instanceof Error;
+        }
+
+        options.waitTime = 10_000;
+        AtomicInteger polls = new AtomicInteger();
+        CompletableFuture<String> wait = new WaiterHelper<String>().waitForConditionAsync(() -> {
+            polls.incrementAndGet();
+            return "PENDING";
+        }, "DONE", options);
+        Thread.sleep(100);
+        wait.cancel(false);
+        Thread.sleep(50);
+        int pollsAtCancel = polls.get();
+        Thread.sleep(200);
+        System.out.printf("async: timeout fails the future %b, polls after cancel %d%n", failed, polls.get() - pollsAtCancel);
+        return failed && polls.get() == pollsAtCancel;
+    }
+}
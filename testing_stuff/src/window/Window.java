@@ -0,0 +1,34 @@
+package src.window;
+
+/**
+ * Shape of a window over a stream: the last {@code size} values, reported every {@code hop} values.
+ * hop 1 is a sliding window, hop == size a tumbling one, 1 < hop < size a hopping one and hop > size samples
+ * {@code size} values out of every {@code hop}.
+ */
+public record Window(int size, int hop) {
+
+    public Window {
+        if (size <= 0 || hop <= 0) {
+            throw new IllegalArgumentException("Window size and hop must be positive: " + size + ", " + hop);
+        }
+    }
+
+    public static Window sliding(int size) {
+        return new Window(size, 1);
+    }
+
+    public static Window tumbling(int size) {
+        return new Window(size, size);
+    }
+
+    public static Window hopping(int size, int hop) {
+        return new Window(size, hop);
+    }
+
+    /**
+     * Whether consecutive windows share values, so the values leaving a window have to be remembered.
+     */
+    boolean overlapping() {
+        return hop < size;
+    }
+}
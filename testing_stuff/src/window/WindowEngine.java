@@ -0,0 +1,140 @@
+package src.window;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Push-based window aggregation: every value goes through all registered windows in one pass, and each window
+ * reports its sum, average, min and max to its listener when it is complete (see {@link WindowState}).
+ * Memory depends on the window sizes only, never on the length of the stream, so it can run on an unbounded feed.
+ * All windows share one history ring of the values the largest overlapping window still needs.
+ * <p>
+ * Values come in through {@link #accept(long)}, as an {@link IntConsumer}/{@link LongConsumer} of a stream
+ * ({@link #feed(IntStream)}), or from a {@link Flow.Publisher} via {@link #subscriber(int)}. Not thread-safe:
+ * one producer at a time.
+ */
+public class WindowEngine implements IntConsumer, LongConsumer {
+    private final List<WindowState> states = new ArrayList<>();
+    private WindowState[] active = new WindowState[0];
+    private long[] history = new long[0];
+    private int historyMask = -1;
+    private long count;
+
+    /**
+     * Registers a window; only before the first value.
+     */
+    public WindowEngine add(Window window, Consumer<WindowState> listener) {
+        if (count > 0) {
+            throw new IllegalStateException("Windows can only be added before the first value");
+        }
+        WindowState state = new WindowState(window, listener);
+        states.add(state);
+        active = states.toArray(new WindowState[0]);
+        if (window.overlapping() && window.size() >= history.length) {
+            // one more slot than the window, so the value leaving it isn't overwritten by the one coming in
+            history = new long[powerOfTwoAtLeast(window.size() + 1)];
+            historyMask = history.length - 1;
+        }
+        return this;
+    }
+
+    @Override
+    public void accept(int value) {
+        accept((long) value);
+    }
+
+    @Override
+    public void accept(long value) {
+        long seq = count++;
+        if (history.length > 0) {
+            history[(int) seq & historyMask] = value;
+        }
+        for (WindowState state : active) {
+            state.push(seq, value, history, historyMask);
+        }
+    }
+
+    public WindowEngine feed(IntStream values) {
+        values.sequential().forEach((IntConsumer) this);
+        return this;
+    }
+
+    public WindowEngine feed(LongStream values) {
+        values.sequential().forEach((LongConsumer) this);
+        return this;
+    }
+
+    /**
+     * Number of values seen so far.
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * A subscriber that feeds this engine, asking the publisher for {@code batch} values at a time so a fast
+     * publisher can't fill memory.
+     */
+    public WindowSubscriber subscriber(int batch) {
+        return new WindowSubscriber(batch);
+    }
+
+    static int powerOfTwoAtLeast(int value) {
+        int power = Integer.highestOneBit(value);
+        return power == value ? value : power << 1;
+    }
+
+    public class WindowSubscriber implements Flow.Subscriber<Number> {
+        private final int batch;
+        private final CompletableFuture<Long> done = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+        private int left;
+
+        WindowSubscriber(int batch) {
+            if (batch <= 0) {
+                throw new IllegalArgumentException("Batch must be positive: " + batch);
+            }
+            this.batch = batch;
+        }
+
+        /**
+         * Completes with the number of values seen when the publisher completes.
+         */
+        public CompletableFuture<Long> done() {
+            return done;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            left = batch;
+            subscription.request(batch);
+        }
+
+        @Override
+        public void onNext(Number value) {
+            accept(value.longValue());
+            if (--left == 0) {
+                left = batch;
+                subscription.request(batch);
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            done.completeExceptionally(error);
+        }
+
+        @Override
+        public void onComplete() {
+            done.complete(count);
+        }
+    }
+}
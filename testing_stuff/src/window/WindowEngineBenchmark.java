@@ -0,0 +1,110 @@
+package src.window;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * Pushes a long random feed through sliding, hopping, tumbling and sampling windows in one pass, checks them
+ * against a plain recomputation over an {@link ArrayDeque} for the first million values, and prints throughput and heap
+ * use, which stays flat however long the feed runs. Then the same windows behind a {@link SubmissionPublisher}.
+ * Run: java src.window.WindowEngineBenchmark [values]
+ */
+public class WindowEngineBenchmark {
+    private static final int CHECKED = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+        long values = args.length > 0 ? Long.parseLong(args[0]) : 500_000_000L;
+        Window[] windows = {Window.sliding(1_000), Window.hopping(60_000, 1_000), Window.tumbling(10_000),
+                Window.hopping(500, 2_000)};
+
+        WindowEngine engine = new WindowEngine();
+        long[] reports = new long[windows.length];
+        Checker[] checkers = new Checker[windows.length];
+        for (int i = 0; i < windows.length; i++) {
+            int index = i;
+            checkers[i] = new Checker(windows[i]);
+            engine.add(windows[i], window -> {
+                reports[index]++;
+                if (window.end() <= CHECKED) {
+                    checkers[index].check(window);
+                }
+            });
+        }
+
+        SplittableRandom random = new SplittableRandom(42);
+        long nextHeapReport = values / 5;
+        long start = System.nanoTime();
+        for (long n = 0; n < values; n++) {
+            long value = random.nextInt(-1_000_000, 1_000_000);
+            if (n < CHECKED) {
+                for (Checker checker : checkers) {
+                    checker.add(value);
+                }
+            }
+            engine.accept(value);
+            if (n + 1 == nextHeapReport) {
+                nextHeapReport += values / 5;
+                System.gc();
+                Runtime runtime = Runtime.getRuntime();
+                System.out.printf("%,15d values, heap used %,d KB%n", n + 1,
+                        (runtime.totalMemory() - runtime.freeMemory()) / 1024);
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        System.out.printf("%d windows in one pass: %.1f M values/s, reports %s, first %,d checked%n",
+                windows.length, values * 1e3 / nanos, Arrays.toString(reports), CHECKED);
+
+        WindowEngine published = new WindowEngine();
+        for (Window window : windows) {
+            published.add(window, w -> { });
+        }
+        WindowEngine.WindowSubscriber subscriber = published.subscriber(1_024);
+        int count = 10_000_000;
+        start = System.nanoTime();
+        try (SubmissionPublisher<Number> publisher = new SubmissionPublisher<>()) {
+            publisher.subscribe(subscriber);
+            for (int i = 0; i < count; i++) {
+                publisher.submit(i);
+            }
+        }
+        long seen = subscriber.done().get();
+        nanos = System.nanoTime() - start;
+        System.out.printf("through a SubmissionPublisher: %,d values, %.1f M values/s%n", seen, seen * 1e3 / nanos);
+    }
+
+    /**
+     * Recomputes a window from scratch over the last values: O(size) per report, only for checking.
+     */
+    private static class Checker {
+        private final Window window;
+        private final ArrayDeque<Long> last = new ArrayDeque<>();
+
+        Checker(Window window) {
+            this.window = window;
+        }
+
+        void add(long value) {
+            last.addLast(value);
+            if (last.size() > window.size()) {
+                last.removeFirst();
+            }
+        }
+
+        void check(WindowState state) {
+            long sum = 0;
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (long value : last) {
+                sum += value;
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            if (state.count() != last.size() || state.sum() != sum || state.min() != min || state.max() != max) {
+                throw new AssertionError("Wrong window " + state + ", expected sum=" + sum + " min=" + min
+                        + " max=" + max);
+            }
+        }
+    }
+}
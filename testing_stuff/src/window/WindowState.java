@@ -0,0 +1,150 @@
+package src.window;
+
+import java.util.function.Consumer;
+
+/**
+ * Running sum, min and max of one {@link Window}, updated in O(1) per value. The listener gets this object
+ * itself each time the window is complete, so it must read what it needs before returning.
+ * <p>
+ * Overlapping windows keep min and max in monotonic deques of (sequence, value): the max deque only holds values
+ * that are larger than everything after them, so its head is the max, and a value leaves when it drops out of the
+ * window. The value dropping out of the sum comes from the history the {@link WindowEngine} shares between its
+ * windows. Other windows just restart their aggregates at every window start.
+ */
+public final class WindowState {
+    private final Window window;
+    private final Consumer<WindowState> listener;
+
+    private final long[] maxSeqs;
+    private final long[] maxValues;
+    private final long[] minSeqs;
+    private final long[] minValues;
+    private final int dequeMask;
+    private long maxHead;
+    private long maxTail;
+    private long minHead;
+    private long minTail;
+    /** Values until the next report. */
+    private int untilReport;
+
+    /** Position in the hop for windows that don't overlap. */
+    private int phase;
+    private long runningMin = Long.MAX_VALUE;
+    private long runningMax = Long.MIN_VALUE;
+
+    private int count;
+    private long sum;
+    private long end;
+
+    WindowState(Window window, Consumer<WindowState> listener) {
+        this.window = window;
+        this.listener = listener;
+        int capacity = window.overlapping() ? WindowEngine.powerOfTwoAtLeast(window.size()) : 0;
+        this.maxSeqs = new long[capacity];
+        this.maxValues = new long[capacity];
+        this.minSeqs = new long[capacity];
+        this.minValues = new long[capacity];
+        this.dequeMask = capacity - 1;
+        this.untilReport = window.size();
+    }
+
+    public Window window() {
+        return window;
+    }
+
+    /**
+     * Number of stream values before the end of this window; the window covers the {@link #count()} values before.
+     */
+    public long end() {
+        return end;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public long sum() {
+        return sum;
+    }
+
+    public double average() {
+        return sum / (double) count;
+    }
+
+    public long min() {
+        return window.overlapping() ? minValues[(int) minHead & dequeMask] : runningMin;
+    }
+
+    public long max() {
+        return window.overlapping() ? maxValues[(int) maxHead & dequeMask] : runningMax;
+    }
+
+    /**
+     * Adds the value with sequence number {@code seq}; {@code history} holds at least the last {@code size}
+     * values before it.
+     */
+    void push(long seq, long value, long[] history, int historyMask) {
+        if (window.overlapping()) {
+            slide(seq, value, history, historyMask);
+        } else {
+            hop(value);
+        }
+        end = seq + 1;
+        if (--untilReport == 0) {
+            untilReport = window.hop();
+            listener.accept(this);
+        }
+    }
+
+    private void slide(long seq, long value, long[] history, int historyMask) {
+        long leaving = seq - window.size();
+        if (leaving >= 0) {
+            sum -= history[(int) leaving & historyMask];
+            if (maxSeqs[(int) maxHead & dequeMask] == leaving) {
+                maxHead++;
+            }
+            if (minSeqs[(int) minHead & dequeMask] == leaving) {
+                minHead++;
+            }
+        } else {
+            count++;
+        }
+        sum += value;
+
+        while (maxTail > maxHead && maxValues[(int) (maxTail - 1) & dequeMask] <= value) {
+            maxTail--;
+        }
+        maxSeqs[(int) maxTail & dequeMask] = seq;
+        maxValues[(int) maxTail++ & dequeMask] = value;
+
+        while (minTail > minHead && minValues[(int) (minTail - 1) & dequeMask] >= value) {
+            minTail--;
+        }
+        minSeqs[(int) minTail & dequeMask] = seq;
+        minValues[(int) minTail++ & dequeMask] = value;
+    }
+
+    private void hop(long value) {
+        if (phase == 0) {
+            count = 0;
+            sum = 0;
+            runningMin = Long.MAX_VALUE;
+            runningMax = Long.MIN_VALUE;
+        }
+        if (phase < window.size()) {
+            count++;
+            sum += value;
+            runningMin = Math.min(runningMin, value);
+            runningMax = Math.max(runningMax, value);
+        }
+        if (++phase == window.hop()) {
+            phase = 0;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s end=%d count=%d sum=%d avg=%.3f min=%d max=%d",
+                window, end, count, sum, average(), min(), max());
+    }
+}
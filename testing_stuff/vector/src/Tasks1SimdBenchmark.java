@@ -0,0 +1,135 @@
+package src;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+/**
+ * Compares the scalar {@link Tasks1} loops with {@link Tasks1Vector} from 1K to 64M ints and checks that both give
+ * the same result. maxArea runs on random lines and on ascending ones (where no line can be skipped); moveZeroes
+ * with 10% and 50% zeros, both versions timed with the copy of the input they work on.
+ * Build (vector is a source root of its own, next to src):
+ * <pre>
+ *   javac -d out $(find src -name '*.java')
+ *   javac --add-modules jdk.incubator.vector -cp out -d out-vector vector/src/*.java
+ * </pre>
+ * Run: java --add-modules jdk.incubator.vector -Xmx3g -cp out:out-vector src.Tasks1SimdBenchmark [size,size,...]
+ * sizes like 1K, 1M
+ * <p>
+ * The kernels are timed directly, whatever the hardware. Tasks1Simd only picks them when
+ * {@code Tasks1Vector.supported()}: with vectors narrower than 256 bits (-XX:UseAVX=0, SSE, NEON) they are emulated
+ * and lose to scalar many times over, moveZeroes on 1M ints about 1.1-2.1 s against 0.14-0.18 s.
+ */
+public class Tasks1SimdBenchmark {
+    private static final long MIN_NANOS = 300_000_000L;
+    private static final int WARM_UP_CALLS = 30_000;
+
+    public static void main(String[] args) {
+        String[] sizes = (args.length > 0 ? args[0] : "1K,64K,1M,16M,64M").split(",");
+        System.out.println("vector module: " + Tasks1Simd.VECTOR);
+        warmUp();
+
+        for (String sizeText : sizes) {
+            int size = (int) parseSize(sizeText);
+            SplittableRandom random = new SplittableRandom(size);
+            // odd factors, so the products don't collapse to 0 after 32 even numbers
+            int[] factors = random.ints(size, 0, 1 << 16).map(n -> n | 1).toArray();
+            int lineLimit = Integer.MAX_VALUE / size;
+            int[] lines = random.ints(size, 0, lineLimit).toArray();
+            int[] ascending = new int[size];
+            for (int i = 0; i < size; i++) {
+                ascending[i] = (int) ((long) i * lineLimit / size);
+            }
+            int[] fewZeros = zeros(random, size, 10);
+            int[] halfZeros = zeros(random, size, 50);
+            int[] work = new int[size];
+
+            System.out.printf("%n%s%n", sizeText);
+            compare("productExceptSelf",
+                    () -> Tasks1.productExceptSelf(factors), () -> Tasks1Vector.productExceptSelf(factors));
+            compare("maxArea random",
+                    () -> Tasks1.maxArea(lines), () -> Tasks1Vector.maxArea(lines));
+            compare("maxArea ascending",
+                    () -> Tasks1.maxArea(ascending), () -> Tasks1Vector.maxArea(ascending));
+            compare("moveZeroes 10%",
+                    () -> Tasks1.moveZeroes(copy(fewZeros, work)), () -> Tasks1Vector.moveZeroes(copy(fewZeros, work)));
+            compare("moveZeroes 50%",
+                    () -> Tasks1.moveZeroes(copy(halfZeros, work)), () -> Tasks1Vector.moveZeroes(copy(halfZeros, work)));
+            compare("moveZerosToEnd 50%",
+                    () -> Tasks1.moveZerosToEnd(copy(halfZeros, work)), () -> Tasks1Vector.moveZeroes(copy(halfZeros, work)));
+        }
+    }
+
+    /**
+     * Calls everything often on small arrays first, so the JIT compiles whole methods with the vector calls
+     * inlined. Otherwise the first big array only gets an on-stack-replaced loop, which boxes the vectors and is
+     * many times slower than the scalar code.
+     */
+    private static void warmUp() {
+        SplittableRandom random = new SplittableRandom(1);
+        int[] values = zeros(random, 256, 30);
+        int[] work = new int[values.length];
+        for (int i = 0; i < WARM_UP_CALLS; i++) {
+            Tasks1.productExceptSelf(values);
+            Tasks1Vector.productExceptSelf(values);
+            Tasks1.maxArea(values);
+            Tasks1Vector.maxArea(values);
+            Tasks1.moveZeroes(copy(values, work));
+            Tasks1.moveZerosToEnd(copy(values, work));
+            Tasks1Vector.moveZeroes(copy(values, work));
+        }
+    }
+
+    private static void compare(String task, Supplier<Object> scalar, Supplier<Object> vector) {
+        double scalarNanos = time(scalar);
+        double vectorNanos = time(vector);
+        boolean same = Arrays.deepEquals(new Object[]{copyOf(scalar.get())}, new Object[]{copyOf(vector.get())});
+        System.out.printf("  %-20s scalar: %10.3f ms  vector: %10.3f ms  %6.1fx%s%n", task, scalarNanos / 1e6,
+                vectorNanos / 1e6, scalarNanos / vectorNanos, same ? "" : "  RESULTS DIFFER");
+    }
+
+    /**
+     * Average time of one call, after as long a warm-up, repeating until {@link #MIN_NANOS} have passed.
+     */
+    private static double time(Supplier<Object> task) {
+        Object sink;
+        long start = System.nanoTime();
+        do {
+            sink = task.get();
+        } while (System.nanoTime() - start < MIN_NANOS);
+        start = System.nanoTime();
+        long runs = 0;
+        long elapsed;
+        do {
+            sink = task.get();
+            runs++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < MIN_NANOS);
+        if (sink == null) {
+            throw new AssertionError();
+        }
+        return elapsed / (double) runs;
+    }
+
+    /**
+     * The moveZeroes results share one work array, so take a copy before running the other version.
+     */
+    private static Object copyOf(Object result) {
+        return result instanceof int[] ints ? ints.clone() : result;
+    }
+
+    private static int[] copy(int[] from, int[] to) {
+        System.arraycopy(from, 0, to, 0, from.length);
+        return to;
+    }
+
+    private static int[] zeros(SplittableRandom random, int size, int percent) {
+        return random.ints(size, 0, 100).map(n -> n < percent ? 0 : n).toArray();
+    }
+
+    private static long parseSize(String size) {
+        char unit = Character.toUpperCase(size.charAt(size.length() - 1));
+        long factor = unit == 'K' ? 1 << 10 : unit == 'M' ? 1 << 20 : 1;
+        return Long.parseLong(factor == 1 ? size : size.substring(0, size.length() - 1)) * factor;
+    }
+}
@@ -0,0 +1,282 @@
+package src;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@code jdk.incubator.vector} versions of {@link Tasks1#productExceptSelf}, {@link Tasks1#maxArea} and
+ * {@link Tasks1#moveZeroes}. Only compiles and loads with {@code --add-modules jdk.incubator.vector}, so it lives in
+ * the {@code vector} source root and the default build of {@code src} doesn't need the module. Call it through
+ * {@link Tasks1Simd}, which finds it at run time and falls back to the scalar code without it.
+ */
+final class Tasks1Vector {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+    private static final IntVector ONES = IntVector.broadcast(SPECIES, 1);
+    // lane shifts for the in-vector scans, one field each so the JIT sees them as constants
+    private static final VectorShuffle<Integer> UP_1 = shift(-1);
+    private static final VectorShuffle<Integer> UP_2 = shift(-2);
+    private static final VectorShuffle<Integer> UP_4 = shift(-4);
+    private static final VectorShuffle<Integer> UP_8 = shift(-8);
+    private static final VectorShuffle<Integer> DOWN_1 = shift(1);
+    private static final VectorShuffle<Integer> DOWN_2 = shift(2);
+    private static final VectorShuffle<Integer> DOWN_4 = shift(4);
+    private static final VectorShuffle<Integer> DOWN_8 = shift(8);
+    private static final VectorMask<Integer> LOW_1 = lanesBelow(1);
+    private static final VectorMask<Integer> LOW_2 = lanesBelow(2);
+    private static final VectorMask<Integer> LOW_4 = lanesBelow(4);
+    private static final VectorMask<Integer> LOW_8 = lanesBelow(8);
+    private static final VectorMask<Integer> HIGH_1 = lanesBelow(LANES - 1).not();
+    private static final VectorMask<Integer> HIGH_2 = lanesBelow(LANES - 2).not();
+    private static final VectorMask<Integer> HIGH_4 = lanesBelow(LANES - 4).not();
+    private static final VectorMask<Integer> HIGH_8 = lanesBelow(LANES - 8).not();
+    private static final VectorShuffle<Integer> FIRST = VectorShuffle.fromOp(SPECIES, i -> 0);
+    private static final VectorShuffle<Integer> LAST = VectorShuffle.fromOp(SPECIES, i -> LANES - 1);
+
+    /** 8 lanes, so the compaction shuffles fit a 256-entry table. */
+    private static final VectorSpecies<Integer> COMPACT_SPECIES = IntVector.SPECIES_256;
+    private static final int COMPACT_LANES = COMPACT_SPECIES.length();
+    /** Lane i holds 2^i: blended under a mask and added up it gives the mask as bits. */
+    private static final IntVector LANE_BITS = IntVector.fromArray(COMPACT_SPECIES,
+            new int[]{1, 2, 4, 8, 16, 32, 64, 128}, 0);
+    private static final IntVector NO_BITS = IntVector.zero(COMPACT_SPECIES);
+    /** Shuffle for every mask of non-zero lanes that moves those lanes to the front, in order. */
+    private static final VectorShuffle<Integer>[] COMPACT = compactShuffles();
+
+    private Tasks1Vector() {
+    }
+
+    /**
+     * Whether the hardware has vectors at least as wide as the compaction kernel's. With narrower ones (SSE, NEON,
+     * {@code -XX:UseAVX=0}) the 256-bit operations are emulated lane by lane and every kernel here is many times
+     * slower than the scalar loop, so {@link Tasks1Simd} stays scalar.
+     */
+    static boolean supported() {
+        return IntVector.SPECIES_PREFERRED.vectorBitSize() >= COMPACT_SPECIES.vectorBitSize();
+    }
+
+    /**
+     * Prefix products then suffix products, a vector at a time: an exclusive scan inside the vector in
+     * log2(lanes) shift-and-multiply steps, times the product carried over from the vectors before it.
+     * Products wrap around like the scalar {@code int} ones, so the results are identical.
+     * <p>
+     * Slower than the scalar loop (see {@link Tasks1SimdBenchmark}): that one does one multiply per element,
+     * this one log2(lanes) multiplies and shuffles, so {@link Tasks1Simd} doesn't pick it.
+     */
+    static int[] productExceptSelf(int[] nums) {
+        int length = nums.length;
+        int[] res = new int[length];
+        int bound = SPECIES.loopBound(length);
+
+        IntVector carry = ONES;
+        int i = 0;
+        for (; i < bound; i += LANES) {
+            IntVector inclusive = prefixProducts(IntVector.fromArray(SPECIES, nums, i));
+            inclusive.rearrange(UP_1).blend(ONES, LOW_1).mul(carry).intoArray(res, i);
+            carry = carry.mul(inclusive.rearrange(LAST));
+        }
+        int product = carry.lane(0);
+        for (; i < length; i++) {
+            res[i] = product;
+            product *= nums[i];
+        }
+
+        product = 1;
+        for (i = length - 1; i >= bound; i--) {
+            res[i] *= product;
+            product *= nums[i];
+        }
+        carry = IntVector.broadcast(SPECIES, product);
+        for (i = bound - LANES; i >= 0; i -= LANES) {
+            IntVector inclusive = suffixProducts(IntVector.fromArray(SPECIES, nums, i));
+            IntVector exclusive = inclusive.rearrange(DOWN_1).blend(ONES, HIGH_1);
+            IntVector.fromArray(SPECIES, res, i).mul(exclusive.mul(carry)).intoArray(res, i);
+            carry = carry.mul(inclusive.rearrange(FIRST));
+        }
+        return res;
+    }
+
+    /**
+     * The two-pointer scan of {@link Tasks1#maxArea}, but a pointer jumps straight to the next line that is taller
+     * than the one it leaves (lower or equal lines can only give a smaller area), found with vector compares.
+     * Stops once even the tallest line, from a vector max reduction, can't beat the best area at the current width.
+     */
+    static int maxArea(int[] height) {
+        int tallest = max(height);
+        int maxArea = 0;
+        int left = 0;
+        int right = height.length - 1;
+
+        while (left < right) {
+            int leftHeight = height[left];
+            int rightHeight = height[right];
+            maxArea = Math.max(maxArea, Math.min(leftHeight, rightHeight) * (right - left));
+            if (maxArea >= (long) tallest * (right - left - 1)) {
+                break;
+            }
+            if (leftHeight < rightHeight) {
+                left = nextTaller(height, left + 1, right, leftHeight);
+            } else {
+                right = previousTaller(height, left, right - 1, rightHeight);
+            }
+        }
+        return maxArea;
+    }
+
+    /**
+     * Moves the non-zero elements to the front in order and fills the rest with zeros, like
+     * {@link Tasks1#moveZeroes} and {@link Tasks1#moveZerosToEnd}. Every vector is compacted with a shuffle looked
+     * up by its non-zero lanes and stored whole; the store may spill past the compacted lanes, but never past the
+     * vector just read, so nothing unread is overwritten.
+     * The lookup index is a blend-and-add, since {@code VectorMask.toLong()} is not intrinsified on JDK 17.
+     */
+    static int[] moveZeroes(int[] nums) {
+        int bound = COMPACT_SPECIES.loopBound(nums.length);
+        int insert = 0;
+        int i = 0;
+        for (; i < bound; i += COMPACT_LANES) {
+            IntVector v = IntVector.fromArray(COMPACT_SPECIES, nums, i);
+            int nonZero = NO_BITS.blend(LANE_BITS, v.compare(VectorOperators.NE, 0))
+                    .reduceLanes(VectorOperators.ADD);
+            v.rearrange(COMPACT[nonZero]).intoArray(nums, insert);
+            insert += Integer.bitCount(nonZero);
+        }
+        for (; i < nums.length; i++) {
+            if (nums[i] != 0) {
+                nums[insert++] = nums[i];
+            }
+        }
+
+        IntVector zero = IntVector.zero(SPECIES);
+        for (; insert + LANES <= nums.length; insert += LANES) {
+            zero.intoArray(nums, insert);
+        }
+        for (; insert < nums.length; insert++) {
+            nums[insert] = 0;
+        }
+        return nums;
+    }
+
+    /**
+     * Lane i becomes the product of lanes 0..i.
+     */
+    private static IntVector prefixProducts(IntVector v) {
+        v = v.mul(v.rearrange(UP_1).blend(ONES, LOW_1));
+        if (LANES > 2) {
+            v = v.mul(v.rearrange(UP_2).blend(ONES, LOW_2));
+        }
+        if (LANES > 4) {
+            v = v.mul(v.rearrange(UP_4).blend(ONES, LOW_4));
+        }
+        if (LANES > 8) {
+            v = v.mul(v.rearrange(UP_8).blend(ONES, LOW_8));
+        }
+        return v;
+    }
+
+    /**
+     * Lane i becomes the product of lanes i..LANES-1.
+     */
+    private static IntVector suffixProducts(IntVector v) {
+        v = v.mul(v.rearrange(DOWN_1).blend(ONES, HIGH_1));
+        if (LANES > 2) {
+            v = v.mul(v.rearrange(DOWN_2).blend(ONES, HIGH_2));
+        }
+        if (LANES > 4) {
+            v = v.mul(v.rearrange(DOWN_4).blend(ONES, HIGH_4));
+        }
+        if (LANES > 8) {
+            v = v.mul(v.rearrange(DOWN_8).blend(ONES, HIGH_8));
+        }
+        return v;
+    }
+
+    private static int max(int[] values) {
+        IntVector most = IntVector.broadcast(SPECIES, Integer.MIN_VALUE);
+        int bound = SPECIES.loopBound(values.length);
+        int i = 0;
+        for (; i < bound; i += LANES) {
+            most = most.max(IntVector.fromArray(SPECIES, values, i));
+        }
+        int result = most.reduceLanes(VectorOperators.MAX);
+        for (; i < values.length; i++) {
+            result = Math.max(result, values[i]);
+        }
+        return result;
+    }
+
+    /**
+     * First index in [from, to] with a line taller than {@code than}, or {@code to} if there is none.
+     */
+    private static int nextTaller(int[] height, int from, int to, int than) {
+        if (height[from] > than) {
+            // the common case on rising lines, not worth a vector load
+            return from;
+        }
+        int i = from;
+        for (; i + LANES <= to; i += LANES) {
+            VectorMask<Integer> taller = IntVector.fromArray(SPECIES, height, i).compare(VectorOperators.GT, than);
+            if (taller.anyTrue()) {
+                return i + taller.firstTrue();
+            }
+        }
+        while (i < to && height[i] <= than) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Last index in [from, to] with a line taller than {@code than}, or {@code from} if there is none.
+     */
+    private static int previousTaller(int[] height, int from, int to, int than) {
+        if (height[to] > than) {
+            return to;
+        }
+        int i = to;
+        for (; i - LANES >= from; i -= LANES) {
+            VectorMask<Integer> taller = IntVector.fromArray(SPECIES, height, i - LANES + 1)
+                    .compare(VectorOperators.GT, than);
+            if (taller.anyTrue()) {
+                return i - LANES + 1 + taller.lastTrue();
+            }
+        }
+        while (i > from && height[i] <= than) {
+            i--;
+        }
+        return i;
+    }
+
+    /**
+     * Lane i takes lane i + by; lanes that would come from outside the vector get some lane the caller blends away.
+     */
+    private static VectorShuffle<Integer> shift(int by) {
+        return VectorShuffle.fromOp(SPECIES, i -> Math.max(0, Math.min(LANES - 1, i + by)));
+    }
+
+    private static VectorMask<Integer> lanesBelow(int lanes) {
+        return VectorMask.fromLong(SPECIES, lanes <= 0 ? 0 : (1L << lanes) - 1);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static VectorShuffle<Integer>[] compactShuffles() {
+        VectorShuffle<Integer>[] shuffles = new VectorShuffle[1 << COMPACT_LANES];
+        int[] order = new int[COMPACT_LANES];
+        for (int mask = 0; mask < shuffles.length; mask++) {
+            int n = 0;
+            for (int lane = 0; lane < COMPACT_LANES; lane++) {
+                if ((mask & (1 << lane)) != 0) {
+                    order[n++] = lane;
+                }
+            }
+            while (n < COMPACT_LANES) {
+                order[n++] = 0;
+            }
+            shuffles[mask] = VectorShuffle.fromArray(COMPACT_SPECIES, order, 0);
+        }
+        return shuffles;
+    }
+}